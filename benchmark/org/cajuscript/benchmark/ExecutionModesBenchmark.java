@@ -0,0 +1,85 @@
+/*
+ * ExecutionModesBenchmark.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CompiledCajuScript;
+import org.cajuscript.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The same script executed by each execution mode, from the source text
+ * each time, with "caju.cache", with "caju.compile" and by a compiled
+ * script. A new CajuScript instance is created in each execution, how is
+ * done by the applications that executes scripts by request.
+ * @author eduveks
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionModesBenchmark {
+    static final String SCRIPT = "x = 0; s = \"\"; x < 100 @ s = \"s\" + x; x += 1; @";
+    private String baseDirectory;
+    private CompiledCajuScript compiled;
+
+    @Setup
+    public void setup() throws Exception {
+        File dir = File.createTempFile("cajuscript-benchmark", "");
+        dir.delete();
+        dir.mkdirs();
+        baseDirectory = dir.getAbsolutePath();
+        compiled = new CajuScript().compile(SCRIPT);
+    }
+
+    @Benchmark
+    public Value interpret() throws Exception {
+        return new CajuScript().eval(SCRIPT);
+    }
+
+    @Benchmark
+    public Value cache() throws Exception {
+        return new CajuScript().eval("caju.cache: benchmark;\n".concat(SCRIPT));
+    }
+
+    @Benchmark
+    public Value compile() throws Exception {
+        CajuScript caju = new CajuScript();
+        caju.setCompileBaseDirectory(baseDirectory);
+        return caju.eval("caju.compile: Benchmark;\n".concat(SCRIPT));
+    }
+
+    @Benchmark
+    public Value compiled() throws Exception {
+        return new CajuScript().eval(compiled);
+    }
+}
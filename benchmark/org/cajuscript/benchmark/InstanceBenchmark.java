@@ -0,0 +1,71 @@
+/*
+ * InstanceBenchmark.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CompiledCajuScript;
+import org.cajuscript.Syntax;
+import org.cajuscript.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of CajuScript instances, how is done by the applications that
+ * creates an interpreter by request. The instances share the global syntax,
+ * the creation of a new syntax is measured to be compared.
+ * @author eduveks
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceBenchmark {
+    private CompiledCajuScript compiled;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = new CajuScript().compile("x = 1 + 1;");
+    }
+
+    @Benchmark
+    public CajuScript instance() throws Exception {
+        return new CajuScript();
+    }
+
+    @Benchmark
+    public Syntax syntax() {
+        return new Syntax();
+    }
+
+    @Benchmark
+    public Value instanceAndEval() throws Exception {
+        return new CajuScript().eval(compiled);
+    }
+}
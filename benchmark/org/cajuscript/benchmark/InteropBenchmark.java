@@ -0,0 +1,78 @@
+/*
+ * InteropBenchmark.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CompiledCajuScript;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Java interoperability, invocations of methods, static methods and
+ * constructors resolved by reflection.
+ * @author eduveks
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteropBenchmark {
+    @Param({"1000"})
+    public int times;
+    private CajuScript caju;
+    private CompiledCajuScript methods;
+    private CompiledCajuScript staticMethods;
+    private CompiledCajuScript constructors;
+
+    @Setup
+    public void setup() throws Exception {
+        caju = new CajuScript();
+        caju.set("times", times);
+        methods = caju.compile("$java.lang; sb = StringBuilder(); x = 0; x < times @ sb.setLength(0); sb.append(x); x += 1; @");
+        staticMethods = caju.compile("$java.lang; y = 0; x = 0; x < times @ y = Math.max(x, y); x += 1; @");
+        constructors = caju.compile("$java.util; x = 0; x < times @ l = ArrayList(x); x += 1; @");
+    }
+
+    @Benchmark
+    public Object methods() throws Exception {
+        return methods.eval(caju);
+    }
+
+    @Benchmark
+    public Object staticMethods() throws Exception {
+        return staticMethods.eval(caju);
+    }
+
+    @Benchmark
+    public Object constructors() throws Exception {
+        return constructors.eval(caju);
+    }
+}
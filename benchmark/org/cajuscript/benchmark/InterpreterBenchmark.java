@@ -0,0 +1,85 @@
+/*
+ * InterpreterBenchmark.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CompiledCajuScript;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interpretation of scripts already parsed, so only the execution of the
+ * elements is measured.
+ * @author eduveks
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+    @Param({"1000"})
+    public int times;
+    private CajuScript caju;
+    private CompiledCajuScript loop;
+    private CompiledCajuScript arithmetic;
+    private CompiledCajuScript functions;
+    private CompiledCajuScript strings;
+
+    @Setup
+    public void setup() throws Exception {
+        caju = new CajuScript();
+        caju.set("times", times);
+        loop = caju.compile("x = 0; x < times @ x += 1; @");
+        arithmetic = caju.compile("x = 0; y = 0.5; x < times @ y = y * 2 / 2 + x - 1; z = x % 7; x += 1; @");
+        functions = caju.compile("inc v # ~ v + 1; #; x = 0; x < times @ x = inc(x); @");
+        strings = caju.compile("s = \"\"; x = 0; x < times @ s = \"s\" + x; x += 1; @");
+    }
+
+    @Benchmark
+    public Object loop() throws Exception {
+        return loop.eval(caju);
+    }
+
+    @Benchmark
+    public Object arithmetic() throws Exception {
+        return arithmetic.eval(caju);
+    }
+
+    @Benchmark
+    public Object functions() throws Exception {
+        return functions.eval(caju);
+    }
+
+    @Benchmark
+    public Object strings() throws Exception {
+        return strings.eval(caju);
+    }
+}
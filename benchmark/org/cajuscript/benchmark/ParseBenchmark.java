@@ -0,0 +1,103 @@
+/*
+ * ParseBenchmark.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CompiledCajuScript;
+import org.cajuscript.Syntax;
+import org.cajuscript.Value;
+import org.cajuscript.parser.Base;
+import org.cajuscript.parser.Lexer;
+import org.cajuscript.parser.LineDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lexer and parser of a script with loops, conditions, functions and Java
+ * calls, without execution.
+ * @author eduveks
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    static final String SCRIPT = "$java.lang;\n"
+            + "sum a, b # ~ a + b; #\n"
+            + "x = 0;\n"
+            + "s = \"\";\n"
+            + "i = 0; i < 100 @\n"
+            + "    i % 2 = 0 ?\n"
+            + "        x = sum(x, i);\n"
+            + "    ??\n"
+            + "        x = x - 1;\n"
+            + "    ?\n"
+            + "    s = s + \"n\" + i;\n"
+            + "    i += 1;\n"
+            + "@\n"
+            + "sb = StringBuilder();\n"
+            + "sb.append(s).append(x);\n"
+            + "Math.max(x, 10);\n";
+    private CajuScript caju;
+    private Syntax syntax;
+    private List<LineDetail> lines;
+    private Map<String, Value> constants;
+
+    @Setup
+    public void setup() throws Exception {
+        caju = new CajuScript();
+        syntax = CajuScript.getGlobalSyntax("Caju");
+        Lexer lexer = new Lexer(caju, SCRIPT);
+        lines = lexer.statements(syntax, null);
+        constants = lexer.getConstants();
+    }
+
+    @Benchmark
+    public List<LineDetail> lex() throws Exception {
+        Lexer lexer = new Lexer(caju, SCRIPT);
+        while (lexer.nextDirective() != null) {
+        }
+        return lexer.statements(syntax, null);
+    }
+
+    @Benchmark
+    public Base parse() throws Exception {
+        Base base = new Base(new LineDetail(-1, ""));
+        base.parse(caju, lines, constants, syntax);
+        return base;
+    }
+
+    @Benchmark
+    public CompiledCajuScript compile() throws Exception {
+        return caju.compile(SCRIPT);
+    }
+}
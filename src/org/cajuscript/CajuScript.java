@@ -28,11 +28,12 @@ import java.util.Set;
 import java.util.List;
 import java.util.Map;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 import org.cajuscript.parser.Function;
 import org.cajuscript.parser.Base;
+import org.cajuscript.parser.Lexer;
 import org.cajuscript.compiler.Compiler;
 
 /**
@@ -131,24 +132,25 @@ public class CajuScript {
      * in runtime.
      */
     public static final String CAJU_VAR_COMPILE_CLASSPATH = "caju.compile.classPath";
+    /**
+     * Variable name to configure if the classes compiled are only in memory,
+     * without write files in the base directory.
+     */
+    public static final String CAJU_VAR_COMPILE_MEMORY = "caju.compile.memory";
     /**
      * Functions parameters are going to variables setting with this name.
      */
     public static final String CAJU_VARS_PARAMETER = CAJU_VARS.concat("_param_");
-    public static final String LINE_DETAIL_START = "#caju_line$";
-    public static final String LINE_DETAIL_END = ":";
-    private static final Map<String, Syntax> globalSyntaxs = new HashMap<String, Syntax>();
+    private static final Map<String, Syntax> globalSyntaxs = new ConcurrentHashMap<String, Syntax>();
     private Context context = new Context();
     private LineDetail runningLine = new LineDetail(0, "");
-    private Syntax syntax = new Syntax();
+    private Syntax syntax = globalSyntaxs.get("Caju");
     private org.cajuscript.parser.Base parserBase = null;
-    private Map<String, Syntax> syntaxs = new HashMap<String, Syntax>();
-    private static Map<String, String> cacheScripts = new HashMap<String, String>();
-    private static Map<String, Base> cacheParsers = new HashMap<String, Base>();
-    private static Map<String, Context> cacheStaticContexts = new HashMap<String, Context>();
-    private static long staticVarsStringCounter = 1;
+    private Map<String, Syntax> syntaxs = null;
+    private static volatile ScriptCache scriptCache = new DefaultScriptCache();
     private String compileBaseDirectory = "cajuscript-classes";
     private String compileClassPath = "";
+    private boolean compileInMemory = false;
     private int varsCounter = 0;
 
     /**
@@ -174,7 +176,8 @@ public class CajuScript {
     }
 
     /**
-     * Add custom syntax for all instances of CajuScript.
+     * Add custom syntax for all instances of CajuScript. The syntax is made
+     * immutable to be shared, see {@link Syntax#immutable()}.
      *
      * @param name
      *            Syntax name.
@@ -182,7 +185,7 @@ public class CajuScript {
      *            Syntax instance.
      */
     public static void addGlobalSyntax(String name, Syntax syntax) {
-        globalSyntaxs.put(name, syntax);
+        globalSyntaxs.put(name, syntax.immutable());
     }
 
     /**
@@ -196,6 +199,30 @@ public class CajuScript {
         return globalSyntaxs.get(name);
     }
 
+    /**
+     * Get the cache of the scripts parsed with "caju.cache", for all
+     * instances of CajuScript.
+     *
+     * @return Script cache.
+     */
+    public static ScriptCache getScriptCache() {
+        return scriptCache;
+    }
+
+    /**
+     * Define the cache of the scripts parsed with "caju.cache", for all
+     * instances of CajuScript.
+     *
+     * @param cache
+     *            Script cache.
+     */
+    public static void setScriptCache(ScriptCache cache) {
+        if (cache == null) {
+            throw new NullPointerException("Script cache cannot be null.");
+        }
+        scriptCache = cache;
+    }
+
     /**
      * Get default syntax.
      *
@@ -224,6 +251,9 @@ public class CajuScript {
      *            Syntax instance.
      */
     public void addSyntax(String name, Syntax syntax) {
+        if (syntaxs == null) {
+            syntaxs = new HashMap<String, Syntax>();
+        }
         syntaxs.put(name, syntax);
     }
 
@@ -235,7 +265,7 @@ public class CajuScript {
      * @return Syntax instance.
      */
     public Syntax getSyntax(String name) {
-        return syntaxs.get(name);
+        return syntaxs == null ? null : syntaxs.get(name);
     }
 
     /**
@@ -306,6 +336,28 @@ public class CajuScript {
         compileClassPath = classPath;
     }
 
+    /**
+     * If the scripts are compiled only in memory.
+     *
+     * @return Is compiled in memory
+     */
+    public boolean isCompileInMemory() {
+        return compileInMemory;
+    }
+
+    /**
+     * Set if the scripts are compiled only in memory, the classes are not
+     * written in the base directory and are defined directly, each class by
+     * its own class loader, so the classes replaced or unloaded can be
+     * collected.
+     *
+     * @param compileInMemory
+     *            Is compiled in memory
+     */
+    public void setCompileInMemory(boolean compileInMemory) {
+        this.compileInMemory = compileInMemory;
+    }
+
     /**
      * Get line detail in execution.
      *
@@ -390,253 +442,81 @@ public class CajuScript {
             if (script.length() == 0) {
                 return null;
             }
-            script = script.concat(LINE_LIMITER);
-            script = script.replace((CharSequence) "\r\n", LINE_LIMITER);
-            script = script.replace((CharSequence) "\n\r", LINE_LIMITER);
-            script = script.replace((CharSequence) "\n", LINE_LIMITER);
-            script = script.replace((CharSequence) "\r", LINE_LIMITER);
-            String[] lines = script.split(LINE_LIMITER);
-            script = "";
-            StringBuilder scriptFinal = new StringBuilder();
-            String staticStringKey = "";
-            String staticStringValue = "";
-            String previousLine = "";
-            boolean isString1 = false;
-            boolean isString2 = false;
-            int lineNumber = 0;
             String cacheId = "";
-            boolean config = true;
             Context staticContexts = null;
-            Base cacheParser = null;
-            String cacheScript = null;
+            ScriptCache.Entry cacheEntry = null;
             String compilePath = null;
-            lines:
-            for (String line : lines) {
-                line = line.trim();
-                lineNumber++;
-                if (config) {
-                    while (true) {
-                        int lineLimiter = line.indexOf(SUBLINE_LIMITER);
-                        String configLine = line;
-                        if (lineLimiter > -1) {
-                            configLine = configLine.substring(0, lineLimiter);
-                        }
-                        configLine = configLine.replace('\t', ' ').trim();
-                        if (configLine.startsWith("caju.syntax")) {
-                            String syntaxName = configLine.substring(configLine.lastIndexOf(' ') + 1);
-                            Syntax _syntax = getSyntax(syntaxName);
-                            Syntax __syntax = getGlobalSyntax(syntaxName);
-                            if (_syntax != null) {
-                                syntax = _syntax;
-                            } else if (__syntax != null) {
-                                syntax = __syntax;
-                            } else {
-                                throw CajuScriptException.create(this, context,
-                                        "Syntax \"".concat(syntaxName).concat(
-                                        "\" not found."));
-                            }
-                            setSyntax(syntax);
-                        } else if (configLine.startsWith("caju.cache")) {
-                            cacheId = configLine.substring(configLine.lastIndexOf(' ') + 1);
-                            cacheParser = cacheParsers.get(cacheId);
-                            cacheScript = cacheScripts.get(cacheId);
-                            if (cacheParser != null && originalScript.equals(cacheScript)) {
-                                staticContexts = cacheStaticContexts.get(cacheId);
-                            } else if (!(cacheId.length() == 0)) {
-                                staticContexts = new Context();
-                            }
-                        } else if (configLine.startsWith("caju.compile.baseDirectory")) {
-                            set(CAJU_VAR_COMPILE_BASEDIRECTORY, configLine.substring(configLine.lastIndexOf(' ') + 1).trim());
-                        } else if (configLine.startsWith("caju.compile.classPath")) {
-                            set(CAJU_VAR_COMPILE_CLASSPATH, configLine.substring(configLine.lastIndexOf(' ') + 1).trim());
-                        } else if (configLine.startsWith("caju.compile")) {
-                            if (exists(CAJU_VAR_COMPILE_BASEDIRECTORY)) {
-                                setCompileBaseDirectory((String) get(CAJU_VAR_COMPILE_BASEDIRECTORY));
-                            }
-                            if (exists(CAJU_VAR_COMPILE_CLASSPATH)) {
-                                setCompileClassPath((String) get(CAJU_VAR_COMPILE_CLASSPATH));
-                            }
-                            compilePath = configLine.substring(
-                                    configLine.lastIndexOf(' ') + 1).trim();
-                            staticContexts = new Context();
-                        } else {
-                            if (!(configLine.length() == 0)) {
-                                config = false;
-                                break;
-                            }
-                        }
-                        if (lineLimiter > -1) {
-                            line = line.substring(lineLimiter + 1);
-                        } else {
-                            continue lines;
-                        }
-                    }
-                }
-                if (!config && cacheParser != null && originalScript.equals(cacheScript)) {
-                    Set<String> keys = staticContexts.getAllKeys(true);
-                    for (String key : keys) {
-                        context.setVar(key, staticContexts.getVar(key));
-                    }
-                    keys = staticContexts.getStaticStrings().keySet();
-                    for (String key : keys) {
-                        context.setVar(key, staticContexts.getVar(key));
+            Lexer lexer = new Lexer(this, script);
+            String configLine = null;
+            while ((configLine = lexer.nextDirective()) != null) {
+                if (configLine.startsWith("caju.syntax")) {
+                    String syntaxName = configLine.substring(configLine.lastIndexOf(' ') + 1);
+                    Syntax _syntax = getSyntax(syntaxName);
+                    Syntax __syntax = getGlobalSyntax(syntaxName);
+                    if (_syntax != null) {
+                        syntax = _syntax;
+                    } else if (__syntax != null) {
+                        syntax = __syntax;
+                    } else {
+                        throw CajuScriptException.create(this, context,
+                                "Syntax \"".concat(syntaxName).concat(
+                                "\" not found."));
                     }
-                    Map<String, Function> funcs = staticContexts.getFuncs();
-                    keys = funcs.keySet();
-                    for (String key : keys) {
-                        context.setFunc(key, staticContexts.getFunc(key));
+                    setSyntax(syntax);
+                } else if (configLine.startsWith("caju.cache")) {
+                    cacheId = configLine.substring(configLine.lastIndexOf(' ') + 1);
+                    cacheEntry = cacheId.length() == 0 ? null : scriptCache.get(cacheId, originalScript);
+                    if (cacheEntry != null) {
+                        staticContexts = cacheEntry.getStaticContext();
+                    } else if (!(cacheId.length() == 0)) {
+                        staticContexts = new Context();
                     }
-                    parserBase = cacheParser;
-                    Value finalValue = parserBase.execute(this, context, syntax);
-                    parserBase.clear();
-                    return finalValue;
-                }
-                if (!config && compilePath != null) {
-                    Compiler compiler = new Compiler(this, compilePath);
-                    if (compiler.isLatest(originalScript)) {
-                        return compiler.execute(context, syntax);
+                } else if (configLine.startsWith("caju.compile.baseDirectory")) {
+                    set(CAJU_VAR_COMPILE_BASEDIRECTORY, configLine.substring(configLine.lastIndexOf(' ') + 1).trim());
+                } else if (configLine.startsWith("caju.compile.classPath")) {
+                    set(CAJU_VAR_COMPILE_CLASSPATH, configLine.substring(configLine.lastIndexOf(' ') + 1).trim());
+                } else if (configLine.startsWith("caju.compile.memory")) {
+                    set(CAJU_VAR_COMPILE_MEMORY, configLine.substring(configLine.lastIndexOf(' ') + 1).trim());
+                } else if (configLine.startsWith("caju.compile")) {
+                    if (exists(CAJU_VAR_COMPILE_BASEDIRECTORY)) {
+                        setCompileBaseDirectory((String) get(CAJU_VAR_COMPILE_BASEDIRECTORY));
                     }
-                }
-                if (isString1 || isString2) {
-                    setRunningLine(new LineDetail(lineNumber, previousLine));
-                    throw CajuScriptException.create(this, context,
-                            "String not closed");
-                }
-                String lineGarbage = line.trim();
-                if (lineGarbage.length() == 0) {
-                    continue;
-                }
-                for (Pattern comment : syntax.getComments()) {
-                    Matcher m = comment.matcher(lineGarbage);
-                    if (m.find() && m.start() == 0) {
-                        continue lines;
+                    if (exists(CAJU_VAR_COMPILE_CLASSPATH)) {
+                        setCompileClassPath((String) get(CAJU_VAR_COMPILE_CLASSPATH));
                     }
-                }
-                char[] chars = line.toCharArray();
-                previousLine = line;
-                isString1 = false;
-                isString2 = false;
-                char cO = (char) -1;
-                for (char c : chars) {
-                    switch (c) {
-                        case '\'':
-                            if (cO != '\\' && !isString2) {
-                                if (isString1) {
-                                    isString1 = false;
-                                    Value valueString = new Value(null, null, null);
-                                    valueString.setScript("'".concat(staticStringValue).concat("'"));
-                                    context.setVar(staticStringKey, valueString);
-                                    if (staticContexts != null) {
-                                        Value valueStringStatic = new Value(null, null, null);
-                                        valueStringStatic.setScript("'".concat(staticStringValue).concat("'"));
-                                        staticContexts.setVar(staticStringKey, valueStringStatic);
-                                    }
-                                    line = line.replace(
-                                            (CharSequence) ("'".concat(staticStringValue).concat("'")), staticStringKey);
-                                    staticStringKey = "";
-                                    staticStringValue = "";
-                                } else {
-                                    isString1 = true;
-                                    if (staticVarsStringCounter == Long.MAX_VALUE) {
-                                        staticVarsStringCounter = 0;
-                                    }
-                                    staticStringKey = CAJU_VARS_STATIC_STRING.concat(nextVarsCounter()).concat(
-                                            Long.toString(staticVarsStringCounter));
-                                    staticVarsStringCounter++;
-                                }
-                            } else if (isString2 || cO == '\\') {
-                                staticStringValue = staticStringValue.concat(Character.toString(c));
-                            }
-                            break;
-                        case '"':
-                            if (cO != '\\' && !isString1) {
-                                if (isString2) {
-                                    isString2 = false;
-                                    Value valueString = new Value(null, null, null);
-                                    valueString.setScript("\"".concat(staticStringValue).concat("\""));
-                                    context.setVar(staticStringKey, valueString);
-                                    if (staticContexts != null) {
-                                        Value valueStringStatic = new Value(null, null, null);
-                                        valueStringStatic.setScript("\"".concat(staticStringValue).concat("\""));
-                                        staticContexts.setVar(staticStringKey, valueStringStatic);
-                                    }
-                                    line = line.replace((CharSequence) ("\"".concat(staticStringValue).concat("\"")), staticStringKey);
-                                    staticStringKey = "";
-                                    staticStringValue = "";
-                                } else {
-                                    isString2 = true;
-                                    if (staticVarsStringCounter == Long.MAX_VALUE) {
-                                        staticVarsStringCounter = 0;
-                                    }
-                                    staticStringKey = CAJU_VARS_STATIC_STRING.concat(nextVarsCounter()).concat(
-                                            Long.toString(staticVarsStringCounter));
-                                    staticVarsStringCounter++;
-                                }
-                            } else if (isString1 || cO == '\\') {
-                                staticStringValue = staticStringValue.concat(Character.toString(c));
-                            }
-                            break;
-                        default:
-                            if (isString1 || isString2) {
-                                staticStringValue = staticStringValue.concat(Character.toString(c));
-                            }
-                            break;
+                    if (exists(CAJU_VAR_COMPILE_MEMORY)) {
+                        setCompileInMemory(Boolean.parseBoolean(get(CAJU_VAR_COMPILE_MEMORY).toString()));
                     }
-                    cO = c;
+                    compilePath = configLine.substring(
+                            configLine.lastIndexOf(' ') + 1).trim();
+                    staticContexts = new Context();
                 }
-                scriptFinal.append(LINE_DETAIL_START);
-                scriptFinal.append(Integer.toString(lineNumber));
-                scriptFinal.append(LINE_DETAIL_END);
-                scriptFinal.append(line);
-                scriptFinal.append(SUBLINE_LIMITER);
             }
-            lines = scriptFinal.toString().split(SUBLINE_LIMITER);
-            scriptFinal = new StringBuilder();
-            for (String line : lines) {
-                String lineN = "";
-                if (line.startsWith(LINE_DETAIL_START)) {
-                    lineN = line.substring(0, line.indexOf(LINE_DETAIL_END) + 1);
-                    line = line.substring(lineN.length()).trim();
-                }
-                while (true) {
-                    line = line.trim();
-                    int p = endLineIndex(line, syntax);
-                    if (p > -1) {
-                        scriptFinal.append(lineN);
-                        scriptFinal.append(line.substring(0, p));
-                        scriptFinal.append(SUBLINE_LIMITER);
-                        line = line.substring(p);
-                    } else {
-                        scriptFinal.append(lineN);
-                        scriptFinal.append(line);
-                        scriptFinal.append(SUBLINE_LIMITER);
-                        break;
-                    }
+            if (cacheEntry != null) {
+                return execute(cacheEntry.getParser(), staticContexts, syntax);
+            }
+            if (compilePath != null) {
+                Compiler compiler = new Compiler(this, compilePath);
+                if (compiler.isLatest(originalScript)) {
+                    return compiler.execute(context, syntax);
                 }
             }
-            script = scriptFinal.toString();
+            List<LineDetail> lines = lexer.statements(syntax, staticContexts);
             parserBase = new org.cajuscript.parser.Base(new LineDetail(-1, ""));
-            parserBase.parse(this, script, syntax);
+            parserBase.parse(this, lines, lexer.getConstants(), syntax);
             if (!(cacheId.length() == 0)) {
-                cacheScripts.put(cacheId, originalScript);
-                cacheParsers.put(cacheId, (Base) parserBase.cloneSerialization());
-                cacheStaticContexts.put(cacheId, staticContexts);
+                Map<String, Function> funcs = context.getFuncs();
+                for (String key : funcs.keySet()) {
+                    staticContexts.setFunc(key, funcs.get(key));
+                }
+                scriptCache.put(cacheId, new ScriptCache.Entry(originalScript, parserBase, staticContexts));
             }
             if (compilePath != null) {
                 Compiler compiler = new Compiler(this, compilePath);
                 compiler.compile(staticContexts, originalScript, parserBase);
             }
             if (execute) {
-                Value finalValue = parserBase.execute(this, context, syntax);
-                if (!(cacheId.length() == 0)) {
-                    Map<String, Function> funcs = context.getFuncs();
-                    Set<String> keys = funcs.keySet();
-                    Context cacheContext = cacheStaticContexts.get(cacheId);
-                    for (String key : keys) {
-                        cacheContext.setFunc(key, funcs.get(key));
-                    }
-                }
-                return finalValue;
+                return parserBase.execute(this, context, syntax);
             } else {
                 return null;
             }
@@ -649,82 +529,109 @@ public class CajuScript {
         }
     }
 
-    private int endLineIndex(String line, Syntax syntax) {
-        if (line.length() == 0) {
-            return -1;
-        }
-        SyntaxPosition syntaxPosition = null;
-        int l = -1;
-        if ((l = syntax.matcherPosition(line, syntax.getLabel()).getEnd()) > -1) {
-            line = line.substring(l);
-        }
-        int[] starts = new int[12];
-        int[] ends = new int[starts.length];
-        for (int i = 0; i < starts.length; i++) {
-            starts[i] = Integer.MAX_VALUE;
-            ends[i] = Integer.MAX_VALUE;
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getIf())).getEnd() > -1) {
-            starts[0] = syntaxPosition.getStart();
-            ends[0] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getElseIf())).getEnd() > -1) {
-            starts[1] = syntaxPosition.getStart();
-            ends[1] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getElse())).getEnd() > -1) {
-            starts[2] = syntaxPosition.getStart();
-            ends[2] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getLoop())).getEnd() > -1) {
-            starts[3] = syntaxPosition.getStart();
-            ends[3] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getFunction())).getEnd() > -1) {
-            starts[4] = syntaxPosition.getStart();
-            ends[4] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getTry())).getEnd() > -1) {
-            starts[5] = syntaxPosition.getStart();
-            ends[5] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getTryCatch())).getEnd() > -1) {
-            starts[6] = syntaxPosition.getStart();
-            ends[6] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getTryFinally())).getEnd() > -1) {
-            starts[7] = syntaxPosition.getStart();
-            ends[7] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getIfEnd())).getEnd() > -1) {
-            starts[8] = syntaxPosition.getStart();
-            ends[8] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getLoopEnd())).getEnd() > -1) {
-            starts[9] = syntaxPosition.getStart();
-            ends[9] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getFunctionEnd())).getEnd() > -1) {
-            starts[10] = syntaxPosition.getStart();
-            ends[10] = syntaxPosition.getEnd();
-        }
-        if ((syntaxPosition = syntax.matcherPosition(line, syntax.getTryEnd())).getEnd() > -1) {
-            starts[11] = syntaxPosition.getStart();
-            ends[11] = syntaxPosition.getEnd();
-        }
-        int id = -1;
-        for (int i = 0; i < starts.length; i++) {
-            if ((id == -1 && ends[i] < Integer.MAX_VALUE) || (ends[i] < Integer.MAX_VALUE && id > -1 && (ends[i] <= starts[id] || (starts[i] < starts[id] && ends[id] == ends[i])))) {
-                id = i;
+    /**
+     * Script compile, the script is parsed only one time and the compiled
+     * script can be executed many times by
+     * {@link #eval(CompiledCajuScript)}.
+     * <p>The directive "caju.syntax" is applied, the directives "caju.cache"
+     * and "caju.compile" are ignored because the compiled script already is
+     * reusable.</p>
+     *
+     * @param script
+     *            Script to be compiled.
+     * @return Script compiled.
+     * @throws org.cajuscript.CajuScriptException
+     *             Errors ocurred on script parse.
+     */
+    public CompiledCajuScript compile(String script) throws CajuScriptException {
+        return compile(script, getGlobalSyntax("Caju"));
+    }
+
+    /**
+     * Script compile with specific syntax.
+     *
+     * @param script
+     *            Script to be compiled.
+     * @param syntax
+     *            Syntax of the script.
+     * @return Script compiled.
+     * @throws org.cajuscript.CajuScriptException
+     *             Errors ocurred on script parse.
+     */
+    public CompiledCajuScript compile(String script, Syntax syntax)
+            throws CajuScriptException {
+        Syntax syntaxBackup = getSyntax();
+        Context contextBackup = context;
+        try {
+            Lexer lexer = new Lexer(this, script);
+            String configLine = null;
+            while ((configLine = lexer.nextDirective()) != null) {
+                if (configLine.startsWith("caju.syntax")) {
+                    String syntaxName = configLine.substring(configLine.lastIndexOf(' ') + 1);
+                    Syntax _syntax = getSyntax(syntaxName);
+                    Syntax __syntax = getGlobalSyntax(syntaxName);
+                    if (_syntax != null) {
+                        syntax = _syntax;
+                    } else if (__syntax != null) {
+                        syntax = __syntax;
+                    } else {
+                        throw CajuScriptException.create(this, context,
+                                "Syntax \"".concat(syntaxName).concat(
+                                "\" not found."));
+                    }
+                    setSyntax(syntax);
+                }
             }
-        }
-        if (id > -1) {
-            if (id == 3 && l > -1) {
-                ends[id] += l;
+            Context staticContext = new Context();
+            context = new Context();
+            List<LineDetail> lines = lexer.statements(syntax, null);
+            Base base = new Base(new LineDetail(-1, ""));
+            base.parse(this, lines, lexer.getConstants(), syntax);
+            Map<String, Function> funcs = context.getFuncs();
+            for (String key : funcs.keySet()) {
+                staticContext.setFunc(key, funcs.get(key));
             }
-            return ends[id];
+            return new CompiledCajuScript(script, syntax, base, staticContext);
+        } catch (CajuScriptException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw CajuScriptException.create(this, context, t.getMessage(), t);
+        } finally {
+            context = contextBackup;
+            setSyntax(syntaxBackup);
+        }
+    }
+
+    /**
+     * Compiled script execute, the variables of this instance are used.
+     *
+     * @param script
+     *            Script compiled.
+     * @return Value returned by script.
+     * @throws org.cajuscript.CajuScriptException
+     *             Errors ocurred on script execution.
+     */
+    public Value eval(CompiledCajuScript script) throws CajuScriptException {
+        Syntax syntaxBackup = getSyntax();
+        try {
+            setSyntax(script.getSyntax());
+            return execute(script.getParser(), script.getStaticContext(), script.getSyntax());
+        } catch (CajuScriptException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw CajuScriptException.create(this, context, t.getMessage(), t);
+        } finally {
+            setSyntax(syntaxBackup);
+        }
+    }
+
+    private Value execute(Base parser, Context staticContext, Syntax syntax) throws CajuScriptException {
+        Map<String, Function> funcs = staticContext.getFuncs();
+        for (String key : funcs.keySet()) {
+            context.setFunc(key, funcs.get(key));
         }
-        return -1;
+        parserBase = parser;
+        return parser.execute(this, context, syntax);
     }
 
     /**
@@ -1374,7 +1281,7 @@ public class CajuScript {
 
 
     static {
-        globalSyntaxs.put("Caju", new Syntax());
+        globalSyntaxs.put("Caju", new Syntax().immutable());
         Syntax syntaxJ = new Syntax();
         syntaxJ.setIf(Pattern.compile("if\\s*([\\s+|[\\s*\\(]][^\\{]+)\\{"));
         syntaxJ.setElseIf(Pattern.compile("\\}\\s*else\\s+if\\s*([\\s+|[\\s*\\(]][^\\{]+)\\{"));
@@ -1394,7 +1301,7 @@ public class CajuScript {
         syntaxJ.setRootContext(Pattern.compile("root\\."));
         syntaxJ.setContinue(Pattern.compile("continue"));
         syntaxJ.setBreak(Pattern.compile("break"));
-        globalSyntaxs.put("CajuJava", syntaxJ);
+        globalSyntaxs.put("CajuJava", syntaxJ.immutable());
         Syntax syntaxB = new Syntax();
         syntaxB.setIf(Pattern.compile("^[\\s+i|i]f\\s*([\\s+|[\\s*\\(]].+)\\s*"));
         syntaxB.setElseIf(Pattern.compile("^[\\s+e|e]lseif\\s*([\\s+|[\\s*\\(]].+)\\s*"));
@@ -1414,7 +1321,7 @@ public class CajuScript {
         syntaxB.setRootContext(Pattern.compile("root\\."));
         syntaxB.setContinue(Pattern.compile("continue"));
         syntaxB.setBreak(Pattern.compile("break"));
-        globalSyntaxs.put("CajuBasic", syntaxB);
+        globalSyntaxs.put("CajuBasic", syntaxB.immutable());
     }
 
     public <T> T asObject(Reader script, Class<T> superClasz) throws Exception {
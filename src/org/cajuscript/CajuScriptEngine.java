@@ -19,6 +19,8 @@
 package org.cajuscript;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptContext;
 import javax.script.ScriptException;
@@ -26,10 +28,18 @@ import javax.script.ScriptEngineFactory;
 import javax.script.SimpleScriptContext;
 import javax.script.ScriptEngineManager;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.script.Invocable;
 import javax.script.SimpleBindings;
+import org.cajuscript.cmd.Reflection;
+import org.cajuscript.cmd.ScriptCommand;
+import org.cajuscript.compiler.InterfaceCompiler;
+import org.cajuscript.parser.Function;
 
 /**
  * <code>CajuScriptEngine</code> is the standard for execute scripts and
@@ -90,7 +100,7 @@ import javax.script.SimpleBindings;
  * 
  * @author eduveks
  */
-public class CajuScriptEngine implements ScriptEngine, Invocable {
+public class CajuScriptEngine implements ScriptEngine, Invocable, Compilable {
 
     /**
      * Prefix of the variables created automaticaly to catch the values returned
@@ -110,9 +120,11 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
      * Equals the ScriptContext.GLOBAL_SCOPE
      */
     public static final int GLOBAL_SCOPE = ScriptContext.GLOBAL_SCOPE;
+    private static final Logger logger = Logger.getLogger(CajuScriptEngine.class.getName());
     private ScriptContext context;
     private InterfaceImplementor implementor;
     private CajuScript caju;
+    private final ConcurrentHashMap<MethodSite, ScriptCommand> methodSites = new ConcurrentHashMap<MethodSite, ScriptCommand>();
 
     /**
      * Create a new CajuScriptEngine.<br/> <br/> <code>
@@ -250,6 +262,39 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
         return runScript(readAll(reader), bindings);
     }
 
+    /**
+     * Compile the script to be executed many times.<br/> <br/> <code>
+     *     CompiledScript script = ((Compilable) cajuEngine).compile("x = a + 1;");<br/>
+     *     script.eval(bindings);<br/>
+     * </code>
+     *
+     * @param script
+     *            Script to be compiled.
+     * @return Script compiled.
+     * @throws javax.script.ScriptException
+     *             Exception on parse.
+     */
+    public CompiledScript compile(String script) throws ScriptException {
+        try {
+            return new CajuCompiledScript(this, caju.compile(script));
+        } catch (Exception e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    /**
+     * Compile the script in a Reader, can be files.
+     *
+     * @param reader
+     *            Input of the file with the script to be compiled.
+     * @return Script compiled.
+     * @throws javax.script.ScriptException
+     *             Exception on parse.
+     */
+    public CompiledScript compile(Reader reader) throws ScriptException {
+        return compile(readAll(reader));
+    }
+
     /**
      * Send object of Java to CajuScript.<br/> <br/> <code>
      *    javax.script.ScriptEngine cajuEngine = new new org.cajuscript.CajuScriptEngine();<br/>
@@ -370,16 +415,27 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
      */
     public Object invokeMethod(Object thiz, String name, Object... args)
             throws ScriptException, NoSuchMethodException {
-        String funcObjectName = CajuScript.CAJU_VARS.concat("_").concat(
-                caju.nextVarsCounter());
+        if (thiz == null) {
+            throw new IllegalArgumentException("script object can not be null");
+        }
+        Object[] values = args == null ? new Object[0] : args;
+        MethodSite site = new MethodSite(thiz.getClass(), name, values.length);
+        ScriptCommand scriptCommand = methodSites.get(site);
+        if (scriptCommand == null) {
+            scriptCommand = new ScriptCommand(name, ScriptCommand.Type.NATIVE_OBJECT);
+            ScriptCommand previous = methodSites.putIfAbsent(site, scriptCommand);
+            if (previous != null) {
+                scriptCommand = previous;
+            }
+        }
+        boolean attached = loadBindings(context);
         try {
-            caju.set(funcObjectName, thiz);
+            return Reflection.invokeMethod(caju, thiz, name, values, scriptCommand);
         } catch (Exception e) {
             throw new ScriptException(e);
+        } finally {
+            recoveryBindings(attached);
         }
-        Object returnObject = invokeFunction(funcObjectName.concat(".").concat(
-                name), args);
-        return returnObject;
     }
 
     /**
@@ -397,28 +453,23 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
      */
     public Object invokeFunction(String name, Object... args)
             throws ScriptException, NoSuchMethodException {
-        String cmd = "";
-        String funcReturnName = CAJU_VARS_FUNC_RETURN.concat(caju.nextVarsCounter());
-        cmd = cmd.concat(funcReturnName).concat(" = ");
-        cmd = cmd.concat(name).concat("(");
-        if (args != null) {
-            for (int i = 0; i < args.length; i++) {
-                String funcParamName = CAJU_VARS_FUNC_PARAM.concat(
-                        caju.nextVarsCounter()).concat(Integer.toString(i));
-                cmd = cmd.concat(i > 0 ? "," : "").concat(funcParamName);
-                try {
-                    caju.set(funcParamName, args[i]);
-                } catch (Exception e) {
-                    throw new ScriptException(e);
-                }
-            }
+        Function func = caju.getFunc(name);
+        if (func == null) {
+            throw new NoSuchMethodException("Function \"".concat(name).concat("\" not found."));
         }
-        cmd = cmd.concat(");");
-        eval(cmd);
+        boolean attached = loadBindings(context);
         try {
-            return caju.get(funcReturnName);
+            Syntax syntax = CajuScript.getGlobalSyntax("Caju");
+            Value[] values = new Value[args == null ? 0 : args.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new Value(caju, caju.getContext(), syntax);
+                values[i].setValue(args[i]);
+            }
+            return func.call(caju, syntax, values);
         } catch (Exception e) {
             throw new ScriptException(e);
+        } finally {
+            recoveryBindings(attached);
         }
     }
 
@@ -429,13 +480,8 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
      *            Class.
      * @return Interface.
      */
-    @SuppressWarnings("unchecked")
     public <T> T getInterface(Class<T> clasz) {
-        try {
-            return (T) implementor.getInterface(null, clasz);
-        } catch (ScriptException e) {
-            return null;
-        }
+        return implement(null, clasz);
     }
 
     /**
@@ -447,11 +493,30 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
      *            Class.
      * @return Interface.
      */
-    @SuppressWarnings("unchecked")
     public <T> T getInterface(Object thiz, Class<T> clasz) {
         if (thiz == null) {
             throw new IllegalArgumentException("script object can not be null");
         }
+        return implement(thiz, clasz);
+    }
+
+    /**
+     * Implements the interface with a class generated by
+     * {@link InterfaceCompiler}, interfaces not supported by the generator
+     * are implemented by proxy.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T implement(Object thiz, Class<T> clasz) {
+        if (clasz != null && clasz.isInterface()) {
+            try {
+                T implementation = InterfaceCompiler.implement(this, thiz, clasz);
+                if (implementation != null) {
+                    return implementation;
+                }
+            } catch (CajuScriptException e) {
+                logger.log(Level.WARNING, "Interface \"".concat(clasz.getName()).concat("\" implemented by proxy."), e);
+            }
+        }
         try {
             return (T) implementor.getInterface(thiz, clasz);
         } catch (ScriptException e) {
@@ -490,45 +555,74 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
         return CajuScriptEngineFactory.loadScriptEngineManager(mgr);
     }
 
-    private void loadBindings(ScriptContext context) throws ScriptException {
-        List<Integer> scopes = context.getScopes();
-        for (Integer i : scopes) {
-            loadBindings(context.getBindings(i));
+    /**
+     * Key of the site of a method invoked by {@link #invokeMethod}, the
+     * class of the object, the name and the number of arguments.
+     */
+    private static final class MethodSite {
+        private final Class<?> type;
+        private final String name;
+        private final int arity;
+
+        private MethodSite(Class<?> type, String name, int arity) {
+            this.type = type;
+            this.name = name;
+            this.arity = arity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MethodSite)) {
+                return false;
+            }
+            MethodSite site = (MethodSite) o;
+            return type == site.type && arity == site.arity && name.equals(site.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (type.hashCode() * 31 + name.hashCode()) * 31 + arity;
         }
     }
 
-    private void loadBindings(Bindings bindings) throws ScriptException {
-        if (bindings == null) {
-            return;
+    /**
+     * Attach the bindings to the root context, the bindings are read and
+     * written directly by the script, see {@link Context#attach}.
+     */
+    boolean loadBindings(ScriptContext context) {
+        if (caju.getContext().isAttached()) {
+            return false;
         }
-        Set<String> keys = bindings.keySet();
-        for (String key : keys) {
-            try {
-                caju.set(key, bindings.get(key));
-            } catch (Exception e) {
-                throw new ScriptException(e);
+        List<Map<String, Object>> sources = new ArrayList<Map<String, Object>>();
+        for (Integer i : context.getScopes()) {
+            Bindings bindings = context.getBindings(i);
+            if (bindings != null) {
+                sources.add(bindings);
             }
         }
+        return loadBindings(sources);
     }
 
-    private void recoveryBindings(ScriptContext context) throws ScriptException {
-        List<Integer> scopes = context.getScopes();
-        for (Integer i : scopes) {
-            recoveryBindings(context.getBindings(i));
+    private boolean loadBindings(Bindings bindings) {
+        List<Map<String, Object>> sources = new ArrayList<Map<String, Object>>();
+        if (bindings != null) {
+            sources.add(bindings);
         }
+        return loadBindings(sources);
     }
 
-    private void recoveryBindings(Bindings bindings) throws ScriptException {
-        if (bindings == null) {
-            return;
+    private boolean loadBindings(List<Map<String, Object>> sources) {
+        Context rootContext = caju.getContext();
+        if (rootContext.isAttached()) {
+            return false;
         }
-        Set<String> keys = bindings.keySet();
-        for (String key : keys) {
-            try {
-                bindings.put(key, caju.get(key));
-            } catch (Exception e) {
-                throw new ScriptException(e);
-            }
+        rootContext.attach(caju, sources);
+        return true;
+    }
+
+    void recoveryBindings(boolean attached) {
+        if (attached) {
+            caju.getContext().detach();
         }
     }
 
@@ -557,21 +651,60 @@ public class CajuScriptEngine implements ScriptEngine, Invocable {
         return sb.toString();
     }
 
+    Object runScript(CompiledCajuScript script, ScriptContext context)
+            throws ScriptException {
+        boolean attached = loadBindings(context);
+        try {
+            Value v = caju.eval(script);
+            return v != null ? v.getValue() : null;
+        } catch (Exception e) {
+            throw new ScriptException(e);
+        } finally {
+            recoveryBindings(attached);
+        }
+    }
+
     private Object runScript(String script, ScriptContext context)
             throws ScriptException {
-        loadBindings(context);
-        Object obj = runScript(script);
-        recoveryBindings(context);
-        return obj;
+        boolean attached = loadBindings(context);
+        try {
+            return runScript(script);
+        } finally {
+            recoveryBindings(attached);
+        }
     }
 
     private Object runScript(String script, Bindings bindings)
             throws ScriptException {
-        loadBindings(bindings);
-        Object obj = runScript(script);
-        recoveryBindings(bindings);
-        return obj;
+        boolean attached = loadBindings(bindings);
+        try {
+            return runScript(script);
+        } finally {
+            recoveryBindings(attached);
+        }
+    }
+}
+
+class CajuCompiledScript extends CompiledScript {
+
+    public CajuCompiledScript(CajuScriptEngine engine, CompiledCajuScript script) {
+        this.engine = engine;
+        this.script = script;
+    }
+
+    public Object eval(ScriptContext context) throws ScriptException {
+        return engine.runScript(script, context);
+    }
+
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+
+    public CompiledCajuScript getCompiledCajuScript() {
+        return script;
     }
+    private CajuScriptEngine engine;
+    private CompiledCajuScript script;
 }
 
 class InterfaceImplementor {
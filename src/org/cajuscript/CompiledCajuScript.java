@@ -0,0 +1,92 @@
+/*
+ * CompiledCajuScript.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript;
+
+import org.cajuscript.parser.Base;
+
+/**
+ * Script compiled by {@link CajuScript#compile(String)}.
+ * <p>Keeps the script already parsed, so the directives, the static strings
+ * and the statements are read only one time. Is immutable and can be
+ * executed many times, by many instances of CajuScript and threads, each
+ * execution uses the variables of the CajuScript instance.</p>
+ * <p>
+ * <blockquote>
+ * <pre>
+ * CompiledCajuScript script = caju.compile(&quot;x = a + b;&quot;);
+ * caju.set(&quot;a&quot;, 1);
+ * caju.set(&quot;b&quot;, 2);
+ * script.eval(caju);
+ * </pre>
+ * </blockquote>
+ * </p>
+ * @author eduveks
+ */
+public final class CompiledCajuScript {
+    private final String script;
+    private final Syntax syntax;
+    private final Base parser;
+    private final Context staticContext;
+
+    CompiledCajuScript(String script, Syntax syntax, Base parser, Context staticContext) {
+        this.script = script;
+        this.syntax = syntax;
+        this.parser = parser;
+        this.staticContext = staticContext;
+    }
+
+    /**
+     * Get script.
+     * @return Script
+     */
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     * Get syntax.
+     * @return Syntax
+     */
+    public Syntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Get parser base.
+     * @return Parser base
+     */
+    public Base getParser() {
+        return parser;
+    }
+
+    Context getStaticContext() {
+        return staticContext;
+    }
+
+    /**
+     * Execute the script with the variables of the CajuScript instance.
+     * @param caju CajuScript instance
+     * @return Value returned by script
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on script execution
+     */
+    public Value eval(CajuScript caju) throws CajuScriptException {
+        return caju.eval(this);
+    }
+}
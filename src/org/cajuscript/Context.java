@@ -19,33 +19,82 @@
 
 package org.cajuscript;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.WeakHashMap;
 import org.cajuscript.parser.Function;
+import org.cajuscript.parser.Scope;
 
 /**
  * Context contains all variables, functions and imports, exists global context 
  * and local context, functions have a local context.
+ * <p>Variables are stored in slots, the elements of the script load and save
+ * variables by the slot index resolved in the parse, see {@link Scope}. The
+ * variables names are kept to be used by the host code.</p>
+ * <p>The temporary values of the expressions are kept in registers of the
+ * scope bound, they are not variables and are not visible by the names of
+ * the variables.</p>
+ * <p>Maps of variables of the host, like the bindings of JSR-223, can be
+ * attached to be read and written directly, see {@link #attach}.</p>
  * @author eduveks
  */
 public class Context {
     private List<String> imports = new ArrayList<String>();
-    private Map<String, Value> vars = new HashMap<String, Value>();
+    private Map<String, Integer> slots = null;
+    private boolean slotsShared = false;
+    private Value[] values = null;
+    private int size = 0;
+    private Scope frameScope = null;
+    private Scope scope = null;
+    private int[] binding = null;
+    private Scope lastScope = null;
+    private int[] lastBinding = null;
+    private Value[] registers = new Value[0];
+    private Value[] frameRegisters = null;
+    private Map<Scope, Value[]> scopesRegisters = null;
     private Map<String, Function> funcs = new HashMap<String, Function>();
     private Map<String, Class> classCache = new HashMap<String, Class>();
-    private Value staticString = null;
-    private Map<String, String> staticStrings = new HashMap<String, String>();
+    private Map<String, Value> staticStrings = new HashMap<String, Value>();
+    private CajuScript sourcesCaju = null;
+    private List<Map<String, Object>> sources = null;
+    private Set<String> sourcesResolved = null;
+    private List<String> sourcesKeys = null;
+    private List<Map<String, Object>> sourcesOwners = null;
+    private Map<String, Value> vars = null;
 
     /**
      * New context instance.
      */
     public Context() {
-        staticString = new Value(null, null, null);
         imports.add("java.lang");
+        slots = new HashMap<String, Integer>();
+        values = new Value[16];
+    }
+
+    /**
+     * New context instance to be the frame of the scope, the slots of the
+     * scope are used directly without binding.
+     * @param scope Scope of the function or script.
+     */
+    public Context(Scope scope) {
+        imports.add("java.lang");
+        slots = scope.getSlots();
+        slotsShared = true;
+        size = scope.size();
+        values = new Value[size > 0 ? size : 1];
+        registers = new Value[scope.registers()];
+        frameRegisters = registers;
+        frameScope = scope;
+        this.scope = scope;
     }
     
     /**
@@ -58,9 +107,12 @@ public class Context {
     
     /**
      * Get all varriables.
-     * @return All variables.
+     * @return All variables, changes in the map are changes in the variables.
      */
     public Map<String, Value> getVars() {
+        if (vars == null) {
+            vars = new Vars();
+        }
         return vars;
     }
     
@@ -98,9 +150,242 @@ public class Context {
     public Value getVar(String key) throws CajuScriptException {
         if (key.startsWith(CajuScript.CAJU_VARS_STATIC_STRING)) {
             return getStaticStringValue(key);
+        } else if (sources != null && !sourcesResolved.contains(key) && sourcesContains(key)) {
+            int slot = slot(key);
+            load(key, slot);
+            return values[slot];
+        } else if (scope != null && Scope.isRegister(key) && scope.getRegister(key) > -1) {
+            return registers[scope.getRegister(key)];
         } else {
-            return vars.get(key);
+            Integer slot = slots.get(key);
+            return slot == null ? null : values[slot.intValue()];
+        }
+    }
+
+    /**
+     * Get variable by the slot of the scope bound.
+     * @param slot Slot index in the scope.
+     * @return Variable object.
+     */
+    public Value getVar(int slot) {
+        return values[binding == null ? slot : binding[slot]];
+    }
+
+    /**
+     * Setting variable by the slot of the scope bound.
+     * @param slot Slot index in the scope.
+     * @param value Variable value.
+     */
+    public void setVar(int slot, Value value) {
+        values[binding == null ? slot : binding[slot]] = value;
+    }
+
+    /**
+     * Get temporary value by the register of the scope bound.
+     * @param register Register index in the scope.
+     * @return Temporary value.
+     */
+    public Value getRegister(int register) {
+        return registers[register];
+    }
+
+    /**
+     * Setting temporary value by the register of the scope bound.
+     * @param register Register index in the scope.
+     * @param value Temporary value.
+     */
+    public void setRegister(int register, Value value) {
+        registers[register] = value;
+    }
+
+    /**
+     * Get scope bound.
+     * @return Scope.
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Bind the slots of the scope to the variables of this context, after
+     * that elements of the scope can access the variables by the slot.
+     * @param scope Scope to be bound, or null to unbind.
+     * @return Scope bound before, to be restored.
+     * @throws org.cajuscript.CajuScriptException Errors loading the variables attached
+     */
+    public Scope bind(Scope scope) throws CajuScriptException {
+        Scope previous = this.scope;
+        if (scope == previous) {
+            return previous;
+        }
+        this.scope = scope;
+        registers = registers(scope);
+        if (scope == null || scope == frameScope) {
+            binding = null;
+        } else if (scope == lastScope) {
+            binding = lastBinding;
+        } else {
+            binding = new int[scope.size()];
+            for (int i = 0; i < binding.length; i++) {
+                binding[i] = slot(scope.getName(i));
+            }
+            lastScope = scope;
+            lastBinding = binding;
+        }
+        if (sources != null && scope != null) {
+            for (int i = 0; i < scope.size(); i++) {
+                load(scope.getName(i), binding == null ? i : binding[i]);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Clear the variables of this frame, so it can be reused by a new
+     * invocation of the function of the scope. The registers of the scope
+     * are kept, like in the root context they are the values of the elements
+     * and are written again by each execution.
+     */
+    public void reset() {
+        Arrays.fill(values, null);
+        if (!slotsShared && frameScope != null) {
+            slots = frameScope.getSlots();
+            slotsShared = true;
+            size = frameScope.size();
+        }
+        scope = frameScope;
+        registers = frameRegisters != null ? frameRegisters : new Value[0];
+        binding = null;
+        lastScope = null;
+        lastBinding = null;
+        scopesRegisters = null;
+        if (imports.size() != 1) {
+            imports.clear();
+            imports.add("java.lang");
+        }
+        if (!funcs.isEmpty()) {
+            funcs.clear();
+        }
+        if (!classCache.isEmpty()) {
+            classCache.clear();
+        }
+        if (!staticStrings.isEmpty()) {
+            staticStrings.clear();
+        }
+    }
+
+    /**
+     * Remove the temporary values of the registers of the frame, they are
+     * created by the CajuScript instance that executed the frame.
+     */
+    public void clearRegisters() {
+        if (frameRegisters != null) {
+            Arrays.fill(frameRegisters, null);
+        }
+    }
+
+    private Value[] registers(Scope scope) {
+        if (scope == null) {
+            return new Value[0];
+        } else if (scope == frameScope) {
+            return frameRegisters;
+        }
+        if (scopesRegisters == null) {
+            scopesRegisters = new WeakHashMap<Scope, Value[]>();
+        }
+        Value[] r = scopesRegisters.get(scope);
+        if (r == null) {
+            r = new Value[scope.registers()];
+            scopesRegisters.put(scope, r);
+        }
+        return r;
+    }
+
+    /**
+     * Attach maps of variables to be used directly by the script, the
+     * variables are loaded only when used by the script and only the
+     * variables loaded are written back by {@link #detach()}. The first map
+     * that contains the variable has priority.
+     * @param caju CajuScript instance, used to convert the values
+     * @param sources Maps of variables, like the bindings of JSR-223
+     */
+    public void attach(CajuScript caju, List<Map<String, Object>> sources) {
+        this.sourcesCaju = caju;
+        this.sources = sources;
+        sourcesResolved = new HashSet<String>();
+        sourcesKeys = new ArrayList<String>();
+        sourcesOwners = new ArrayList<Map<String, Object>>();
+    }
+
+    /**
+     * If has maps of variables attached.
+     * @return Is attached
+     */
+    public boolean isAttached() {
+        return sources != null;
+    }
+
+    /**
+     * Write back the variables loaded from the maps attached and detach the
+     * maps, the variables loaded are removed from this context.
+     */
+    public void detach() {
+        if (sources == null) {
+            return;
+        }
+        for (int i = 0; i < sourcesKeys.size(); i++) {
+            int slot = slots.get(sourcesKeys.get(i)).intValue();
+            Value value = values[slot];
+            sourcesOwners.get(i).put(sourcesKeys.get(i), value == null ? null : value.getValue());
+            values[slot] = null;
+        }
+        sourcesCaju = null;
+        sources = null;
+        sourcesResolved = null;
+        sourcesKeys = null;
+        sourcesOwners = null;
+    }
+
+    private boolean sourcesContains(String key) {
+        for (Map<String, Object> source : sources) {
+            if (source.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void load(String key, int slot) throws CajuScriptException {
+        if (!sourcesResolved.add(key)) {
+            return;
+        }
+        for (Map<String, Object> source : sources) {
+            if (source.containsKey(key)) {
+                values[slot] = sourcesCaju.toValue(source.get(key));
+                sourcesKeys.add(key);
+                sourcesOwners.add(source);
+                return;
+            }
+        }
+    }
+
+    private int slot(String key) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            if (slotsShared) {
+                slots = new HashMap<String, Integer>(slots);
+                slotsShared = false;
+            }
+            if (size == values.length) {
+                Value[] _values = new Value[values.length * 2];
+                System.arraycopy(values, 0, _values, 0, size);
+                values = _values;
+            }
+            slot = Integer.valueOf(size);
+            slots.put(key, slot);
+            size++;
         }
+        return slot.intValue();
     }
     
     /**
@@ -120,8 +405,9 @@ public class Context {
      */
     public Set<String> getAllKeys(boolean withCajuVars) {
         Set<String> keys = new HashSet<String>();
-        for (String key : vars.keySet()) {
-            if (!withCajuVars && key.startsWith(CajuScript.CAJU_VARS)) {
+        for (Map.Entry<String, Integer> slot : slots.entrySet()) {
+            String key = slot.getKey();
+            if (values[slot.getValue().intValue()] == null || (!withCajuVars && key.startsWith(CajuScript.CAJU_VARS))) {
                 continue;
             }
             keys.add(key);
@@ -137,8 +423,21 @@ public class Context {
     public void setVar(String key, Value value) {
         if (key.startsWith(CajuScript.CAJU_VARS_STATIC_STRING)) {
             setStaticString(key, value.toString());
+        } else if (scope != null && Scope.isRegister(key) && scope.getRegister(key) > -1) {
+            registers[scope.getRegister(key)] = value;
         } else {
-            vars.put(key.trim(), value);
+            key = key.trim();
+            int slot = slot(key);
+            if (sources != null && sourcesResolved.add(key)) {
+                for (Map<String, Object> source : sources) {
+                    if (source.containsKey(key)) {
+                        sourcesKeys.add(key);
+                        sourcesOwners.add(source);
+                        break;
+                    }
+                }
+            }
+            values[slot] = value;
         }
     }
     
@@ -196,21 +495,155 @@ public class Context {
     }
 
     public void setStaticString(String key, String value) {
-        staticStrings.put(key, value);
+        Value v = new Value(null, null, null);
+        v.setString(value);
+        staticStrings.put(key, v);
     }
     public String getStaticString(String key) {
-        return staticStrings.get(key);
+        Value v = staticStrings.get(key);
+        return v == null ? null : v.toString();
     }
 
     public Map<String, String> getStaticStrings() {
-        return staticStrings;
+        Map<String, String> strings = new HashMap<String, String>();
+        for (Map.Entry<String, Value> staticString : staticStrings.entrySet()) {
+            strings.put(staticString.getKey(), staticString.getValue().toString());
+        }
+        return strings;
     }
 
     public Value getStaticStringValue(String key) throws CajuScriptException {
-        if (!staticStrings.containsKey(key)) {
-            return null;
+        Value v = scope == null ? null : scope.getConstant(key);
+        return v != null ? v : staticStrings.get(key);
+    }
+
+    /**
+     * Live view of the variables by name, the variables are read and written
+     * directly in the slots.
+     */
+    private final class Vars extends AbstractMap<String, Value> {
+        @Override
+        public Value get(Object key) {
+            Integer slot = slots.get(key);
+            return slot == null ? null : values[slot.intValue()];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Value put(String key, Value value) {
+            int slot = slot(key);
+            Value previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public Value remove(Object key) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                return null;
+            }
+            Value previous = values[slot.intValue()];
+            values[slot.intValue()] = null;
+            return previous;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Value>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Value>>() {
+                @Override
+                public Iterator<Map.Entry<String, Value>> iterator() {
+                    return new VarsIterator();
+                }
+
+                @Override
+                public int size() {
+                    int count = 0;
+                    for (Integer slot : slots.values()) {
+                        if (values[slot.intValue()] != null) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            };
+        }
+    }
+
+    private final class VarsIterator implements Iterator<Map.Entry<String, Value>> {
+        private final Iterator<Map.Entry<String, Integer>> slotsIterator = slots.entrySet().iterator();
+        private Map.Entry<String, Integer> next = null;
+        private Map.Entry<String, Integer> last = null;
+
+        public boolean hasNext() {
+            while (next == null && slotsIterator.hasNext()) {
+                Map.Entry<String, Integer> slot = slotsIterator.next();
+                if (values[slot.getValue().intValue()] != null) {
+                    next = slot;
+                }
+            }
+            return next != null;
+        }
+
+        public Map.Entry<String, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return new VarsEntry(last.getKey(), last.getValue().intValue());
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            values[last.getValue().intValue()] = null;
+            last = null;
+        }
+    }
+
+    private final class VarsEntry implements Map.Entry<String, Value> {
+        private final String key;
+        private final int slot;
+
+        private VarsEntry(String key, int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Value getValue() {
+            return values[slot];
+        }
+
+        public Value setValue(Value value) {
+            Value previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Value value = getValue();
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Value value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
         }
-        staticString.setValue(staticStrings.get(key));
-        return staticString;
     }
 }
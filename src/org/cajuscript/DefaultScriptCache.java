@@ -0,0 +1,136 @@
+/*
+ * DefaultScriptCache.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default script cache, thread safe and limited by number of entries.
+ * <p>Entries are in a concurrent map and each access marks the entry with
+ * a clock, when the limit is exceeded the entry least recently used is
+ * removed.</p>
+ * @author eduveks
+ */
+public class DefaultScriptCache implements ScriptCache {
+    /**
+     * Default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+    private final ConcurrentHashMap<String, Node> entries = new ConcurrentHashMap<String, Node>();
+    private final int maxSize;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create new DefaultScriptCache with the default maximum size.
+     */
+    public DefaultScriptCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create new DefaultScriptCache.
+     * @param maxSize Maximum number of entries
+     */
+    public DefaultScriptCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size: ".concat(Integer.toString(maxSize)));
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get maximum number of entries.
+     * @return Maximum size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Entry get(String id, String script) {
+        Node node = entries.get(id);
+        if (node == null || !node.entry.matches(script)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        node.access = clock.incrementAndGet();
+        hits.incrementAndGet();
+        return node.entry;
+    }
+
+    public void put(String id, Entry entry) {
+        entries.put(id, new Node(entry, clock.incrementAndGet()));
+        while (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void remove(String id) {
+        entries.remove(id);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void evict() {
+        String eldestId = null;
+        Node eldest = null;
+        for (Map.Entry<String, Node> e : entries.entrySet()) {
+            if (eldest == null || e.getValue().access < eldest.access) {
+                eldestId = e.getKey();
+                eldest = e.getValue();
+            }
+        }
+        if (eldest != null && entries.remove(eldestId, eldest)) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static final class Node {
+        private final Entry entry;
+        private volatile long access;
+
+        private Node(Entry entry, long access) {
+            this.entry = entry;
+            this.access = access;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * InterfaceImplementation.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import org.cajuscript.cmd.Reflection;
+import org.cajuscript.cmd.ScriptCommand;
+import org.cajuscript.parser.Function;
+
+/**
+ * Base of the classes generated by
+ * {@link org.cajuscript.compiler.InterfaceCompiler} to implement interfaces
+ * with functions of the script.
+ * <p>Each method of the interface has an index, the method generated
+ * converts the arguments to values, without boxing the primitive types, and
+ * invokes the function with the same name of the method. The functions are
+ * resolved when the implementation is created, so the class generated by
+ * interface is bound to the functions of the script by each instance.</p>
+ * @author eduveks
+ */
+public abstract class InterfaceImplementation {
+    private final CajuScriptEngine engine;
+    private final CajuScript caju;
+    private final Syntax syntax;
+    private final Object thiz;
+    private final String[] names;
+    private final Function[] functions;
+    private final ScriptCommand[] sites;
+
+    /**
+     * Create new InterfaceImplementation.
+     * @param engine Engine with the functions
+     * @param thiz Object with the methods to invoke, or null to invoke the functions
+     * @param names Names of the methods by index
+     */
+    protected InterfaceImplementation(CajuScriptEngine engine, Object thiz, String[] names) {
+        this.engine = engine;
+        this.caju = engine.getCajuScript();
+        this.syntax = CajuScript.getGlobalSyntax("Caju");
+        this.thiz = thiz;
+        this.names = names;
+        this.functions = new Function[names.length];
+        this.sites = new ScriptCommand[names.length];
+        if (thiz == null) {
+            for (int i = 0; i < names.length; i++) {
+                functions[i] = caju.getFunc(names[i]);
+            }
+        }
+    }
+
+    /**
+     * Invoke the function of the method, the function not defined when the
+     * implementation was created is resolved in the first invocation.
+     * @param index Index of the method
+     * @param values Arguments values
+     * @return Value returned by the function
+     */
+    protected final Value invoke(int index, Value[] values) {
+        boolean attached = engine.loadBindings(engine.getContext());
+        try {
+            if (thiz == null) {
+                Function func = functions[index];
+                if (func == null) {
+                    func = caju.getFunc(names[index]);
+                    if (func == null) {
+                        throw new UndeclaredThrowableException(new NoSuchMethodException("Function \"".concat(names[index]).concat("\" not found.")));
+                    }
+                    functions[index] = func;
+                }
+                return func.callValue(caju, syntax, values);
+            }
+            if (sites[index] == null) {
+                sites[index] = new ScriptCommand(names[index], ScriptCommand.Type.NATIVE_OBJECT);
+            }
+            Object[] args = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                args[i] = values[i].getValue();
+            }
+            return caju.toValue(Reflection.invokeMethod(caju, thiz, names[index], args, sites[index]));
+        } catch (CajuScriptException e) {
+            throw new UndeclaredThrowableException(e);
+        } finally {
+            engine.recoveryBindings(attached);
+        }
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(int v) {
+        Value value = new Value(caju, caju.getContext(), syntax);
+        value.setInt(v);
+        return value;
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(long v) {
+        Value value = new Value(caju, caju.getContext(), syntax);
+        value.setLong(v);
+        return value;
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(float v) {
+        Value value = new Value(caju, caju.getContext(), syntax);
+        value.setFloat(v);
+        return value;
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(double v) {
+        Value value = new Value(caju, caju.getContext(), syntax);
+        value.setDouble(v);
+        return value;
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(boolean v) {
+        Value value = new Value(caju, caju.getContext(), syntax);
+        value.setBoolean(v);
+        return value;
+    }
+
+    /**
+     * New value of an argument.
+     * @param v Argument
+     * @return Value
+     */
+    protected final Value value(Object v) {
+        try {
+            return caju.toValue(v);
+        } catch (CajuScriptException e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Convert the value returned to int.
+     * @param value Value
+     * @return Int
+     */
+    protected static int toInt(Value value) {
+        return (int)toLong(value);
+    }
+
+    /**
+     * Convert the value returned to long.
+     * @param value Value
+     * @return Long
+     */
+    protected static long toLong(Value value) {
+        if (value.getType() == Value.Type.NUMBER) {
+            switch (value.getTypeNumber()) {
+                case INTEGER:
+                    return value.getNumberIntegerValue();
+                case LONG:
+                    return value.getNumberLongValue();
+                case FLOAT:
+                    return (long)value.getNumberFloatValue();
+                default:
+                    return (long)value.getNumberDoubleValue();
+            }
+        }
+        Object v = value.getValue();
+        return v instanceof Number ? ((Number)v).longValue() : 0L;
+    }
+
+    /**
+     * Convert the value returned to float.
+     * @param value Value
+     * @return Float
+     */
+    protected static float toFloat(Value value) {
+        return (float)toDouble(value);
+    }
+
+    /**
+     * Convert the value returned to double.
+     * @param value Value
+     * @return Double
+     */
+    protected static double toDouble(Value value) {
+        if (value.getType() == Value.Type.NUMBER) {
+            return value.getNumberValue();
+        }
+        Object v = value.getValue();
+        return v instanceof Number ? ((Number)v).doubleValue() : 0d;
+    }
+
+    /**
+     * Convert the value returned to char.
+     * @param value Value
+     * @return Char
+     */
+    protected static char toChar(Value value) {
+        Object v = value.getValue();
+        if (v instanceof Character) {
+            return ((Character)v).charValue();
+        } else if (v instanceof Number) {
+            return (char)((Number)v).intValue();
+        }
+        String s = value.toString();
+        return s.length() == 0 ? (char)0 : s.charAt(0);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * ScriptCache.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript;
+
+import org.cajuscript.parser.Base;
+
+/**
+ * Cache of the scripts parsed with the directive "caju.cache", shared by all
+ * instances of CajuScript.
+ * <p>Implementations must be thread safe, the default implementation is
+ * {@link DefaultScriptCache} and can be replaced with
+ * {@link CajuScript#setScriptCache(ScriptCache)}.</p>
+ * @author eduveks
+ */
+public interface ScriptCache {
+    /**
+     * Get the entry of the cache id, only if was cached from the same script.
+     * @param id Cache id
+     * @param script Script
+     * @return Entry or null if is not cached or was cached from other script
+     */
+    public Entry get(String id, String script);
+
+    /**
+     * Put an entry in the cache.
+     * @param id Cache id
+     * @param entry Entry
+     */
+    public void put(String id, Entry entry);
+
+    /**
+     * Remove the entry of the cache id.
+     * @param id Cache id
+     */
+    public void remove(String id);
+
+    /**
+     * Remove all entries.
+     */
+    public void clear();
+
+    /**
+     * Number of entries.
+     * @return Size
+     */
+    public int size();
+
+    /**
+     * Number of times that the script was found in the cache.
+     * @return Hits
+     */
+    public long getHits();
+
+    /**
+     * Number of times that the script was not found in the cache.
+     * @return Misses
+     */
+    public long getMisses();
+
+    /**
+     * Number of entries removed to free space.
+     * @return Evictions
+     */
+    public long getEvictions();
+
+    /**
+     * Script parsed in the cache.
+     */
+    public static final class Entry {
+        private final String script;
+        private final int hash;
+        private final Base parser;
+        private final Context staticContext;
+
+        /**
+         * Create new Entry.
+         * @param script Script
+         * @param parser Parser base of the script
+         * @param staticContext Static context of the script
+         */
+        public Entry(String script, Base parser, Context staticContext) {
+            this.script = script;
+            this.hash = script.hashCode();
+            this.parser = parser;
+            this.staticContext = staticContext;
+        }
+
+        /**
+         * Get script.
+         * @return Script
+         */
+        public String getScript() {
+            return script;
+        }
+
+        /**
+         * Get parser base.
+         * @return Parser base
+         */
+        public Base getParser() {
+            return parser;
+        }
+
+        /**
+         * Get static context.
+         * @return Static context
+         */
+        public Context getStaticContext() {
+            return staticContext;
+        }
+
+        /**
+         * If this entry was cached from the script. The content is only
+         * compared when the hash and the length are equals.
+         * @param s Script
+         * @return Is from the same script
+         */
+        public boolean matches(String s) {
+            return s == script || (s.hashCode() == hash && s.length() == script.length() && s.equals(script));
+        }
+    }
+}
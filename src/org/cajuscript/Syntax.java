@@ -21,6 +21,7 @@ package org.cajuscript;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import org.cajuscript.parser.Operation.Operator;
 
 /**
  * Script syntax.
@@ -123,6 +124,11 @@ public class Syntax {
     private Pattern arrayCallParametersBegin = Pattern.compile("\\[");
     private Pattern arrayCallParametersSeparator = Pattern.compile("\\,");
     private Pattern arrayCallParametersEnd = Pattern.compile("\\]");
+    private Operators operatorsLogical = null;
+    private Operators operatorsConditional = null;
+    private Operators operatorsMathematic = null;
+    private Operators operatorsPriority = null;
+    private boolean immutable = false;
 
     /**
      * Create new Syntax.
@@ -131,6 +137,35 @@ public class Syntax {
 
     }
 
+    /**
+     * Make this syntax immutable, after that the patterns can not be changed
+     * and the syntax can be shared by many instances of CajuScript and
+     * threads. The global syntaxes are immutable.
+     * @return This syntax
+     */
+    public Syntax immutable() {
+        getOperatorsLogical();
+        getOperatorsConditional();
+        getOperatorsMathematic();
+        getOperatorsPriority();
+        immutable = true;
+        return this;
+    }
+
+    /**
+     * If this syntax is immutable.
+     * @return Is immutable
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Syntax is immutable, create a new Syntax to be customized.");
+        }
+    }
+
     /**
      * Get If. Default "([^\\?\\@\\#\\^]+)\\?".
      * Basic: "^[\\s+i|i]f\\s*([\\s+|[\\s*\\(]].+)\\s*".
@@ -534,6 +569,7 @@ public class Syntax {
      * @param ifStart If.
      */
     public void setIf(Pattern ifStart) {
+        checkMutable();
         this.ifStart = ifStart;
     }
 
@@ -544,6 +580,7 @@ public class Syntax {
      * @param ifEnd If end.
      */
     public void setIfEnd(Pattern ifEnd) {
+        checkMutable();
         this.ifEnd = ifEnd;
     }
 
@@ -554,6 +591,7 @@ public class Syntax {
      * @param elseIfStart Else If.
      */
     public void setElseIf(Pattern elseIfStart) {
+        checkMutable();
         this.elseIfStart = elseIfStart;
     }
 
@@ -564,6 +602,7 @@ public class Syntax {
      * @param elseStart Else.
      */
     public void setElse(Pattern elseStart) {
+        checkMutable();
         this.elseStart = elseStart;
     }
 
@@ -574,6 +613,7 @@ public class Syntax {
      * @param loopStart Loop.
      */
     public void setLoop(Pattern loopStart) {
+        checkMutable();
         this.loopStart = loopStart;
     }
 
@@ -584,6 +624,7 @@ public class Syntax {
      * @param loopEnd Loop end.
      */
     public void setLoopEnd(Pattern loopEnd) {
+        checkMutable();
         this.loopEnd = loopEnd;
     }
 
@@ -594,6 +635,7 @@ public class Syntax {
      * @param functionStart Function.
      */
     public void setFunction(Pattern functionStart) {
+        checkMutable();
         this.functionStart = functionStart;
     }
 
@@ -604,6 +646,7 @@ public class Syntax {
      * @param functionEnd Function end.
      */
     public void setFunctionEnd(Pattern functionEnd) {
+        checkMutable();
         this.functionEnd = functionEnd;
     }
 
@@ -614,6 +657,7 @@ public class Syntax {
      * @param tryStart Try.
      */
     public void setTry(Pattern tryStart) {
+        checkMutable();
         this.tryStart = tryStart;
     }
 
@@ -624,6 +668,7 @@ public class Syntax {
      * @param tryEnd Try end.
      */
     public void setTryEnd(Pattern tryEnd) {
+        checkMutable();
         this.tryEnd = tryEnd;
     }
 
@@ -634,6 +679,7 @@ public class Syntax {
      * @param catchStart Catch.
      */
     public void setTryCatch(Pattern catchStart) {
+        checkMutable();
         this.tryCatchStart = catchStart;
     }
 
@@ -644,6 +690,7 @@ public class Syntax {
      * @param finallyStart Finally.
      */
     public void setTryFinally(Pattern finallyStart) {
+        checkMutable();
         this.tryFinallyStart = finallyStart;
     }
 
@@ -654,6 +701,7 @@ public class Syntax {
      * @param i Import.
      */
     public void setImport(Pattern i) {
+        checkMutable();
         this._import = i;
     }
 
@@ -664,6 +712,7 @@ public class Syntax {
      * @param n Null.
      */
     public void setNull(Pattern n) {
+        checkMutable();
         this._null = n;
     }
 
@@ -674,6 +723,7 @@ public class Syntax {
      * @param r Return.
      */
     public void setReturn(Pattern r) {
+        checkMutable();
         this._return = r;
     }
 
@@ -684,6 +734,7 @@ public class Syntax {
      * @param b Break.
      */
     public void setBreak(Pattern b) {
+        checkMutable();
         this._break = b;
     }
 
@@ -694,6 +745,7 @@ public class Syntax {
      * @param c Continue.
      */
     public void setContinue(Pattern c) {
+        checkMutable();
         this._continue = c;
     }
 
@@ -704,6 +756,7 @@ public class Syntax {
      * @param c Root Context.
      */
     public void setRootContext(Pattern c) {
+        checkMutable();
         this.rootContext = c;
     }
 
@@ -712,7 +765,9 @@ public class Syntax {
      * @param operatorAddition Addition operator.
      */
     public void setOperatorAddition(Pattern operatorAddition) {
+        checkMutable();
         this.operatorAddition = operatorAddition;
+        resetOperators();
     }
 
     /**
@@ -720,7 +775,9 @@ public class Syntax {
      * @param operatorSubtraction Subtraction operator.
      */
     public void setOperatorSubtraction(Pattern operatorSubtraction) {
+        checkMutable();
         this.operatorSubtraction = operatorSubtraction;
+        resetOperators();
     }
 
     /**
@@ -728,7 +785,9 @@ public class Syntax {
      * @param operatorMultiplication Multiplication operator.
      */
     public void setOperatorMultiplication(Pattern operatorMultiplication) {
+        checkMutable();
         this.operatorMultiplication = operatorMultiplication;
+        resetOperators();
     }
 
     /**
@@ -736,7 +795,9 @@ public class Syntax {
      * @param operatorDivision Division operator.
      */
     public void setOperatorDivision(Pattern operatorDivision) {
+        checkMutable();
         this.operatorDivision = operatorDivision;
+        resetOperators();
     }
 
     /**
@@ -744,7 +805,9 @@ public class Syntax {
      * @param operatorModules Modules operator.
      */
     public void setOperatorModules(Pattern operatorModules) {
+        checkMutable();
         this.operatorModules = operatorModules;
+        resetOperators();
     }
 
     /**
@@ -752,7 +815,9 @@ public class Syntax {
      * @param operatorAnd And operator.
      */
     public void setOperatorAnd(Pattern operatorAnd) {
+        checkMutable();
         this.operatorAnd = operatorAnd;
+        resetOperators();
     }
 
     /**
@@ -760,7 +825,9 @@ public class Syntax {
      * @param operatorOr Or operator.
      */
     public void setOperatorOr(Pattern operatorOr) {
+        checkMutable();
         this.operatorOr = operatorOr;
+        resetOperators();
     }
 
     /**
@@ -768,7 +835,9 @@ public class Syntax {
      * @param operatorEqual Equal operator.
      */
     public void setOperatorEqual(Pattern operatorEqual) {
+        checkMutable();
         this.operatorEqual = operatorEqual;
+        resetOperators();
     }
 
     /**
@@ -776,7 +845,9 @@ public class Syntax {
      * @param operatorNotEqual Not Equal operator.
      */
     public void setOperatorNotEqual(Pattern operatorNotEqual) {
+        checkMutable();
         this.operatorNotEqual = operatorNotEqual;
+        resetOperators();
     }
 
     /**
@@ -784,7 +855,9 @@ public class Syntax {
      * @param operatorLess Less operator.
      */
     public void setOperatorLess(Pattern operatorLess) {
+        checkMutable();
         this.operatorLess = operatorLess;
+        resetOperators();
     }
 
     /**
@@ -792,7 +865,9 @@ public class Syntax {
      * @param operatorGreater Greater operator.
      */
     public void setOperatorGreater(Pattern operatorGreater) {
+        checkMutable();
         this.operatorGreater = operatorGreater;
+        resetOperators();
     }
 
     /**
@@ -800,7 +875,9 @@ public class Syntax {
      * @param operatorLessEqual Less Equal operator.
      */
     public void setOperatorLessEqual(Pattern operatorLessEqual) {
+        checkMutable();
         this.operatorLessEqual = operatorLessEqual;
+        resetOperators();
     }
 
     /**
@@ -808,7 +885,9 @@ public class Syntax {
      * @param operatorGreaterEqual Greater Equal operator.
      */
     public void setOperatorGreaterEqual(Pattern operatorGreaterEqual) {
+        checkMutable();
         this.operatorGreaterEqual = operatorGreaterEqual;
+        resetOperators();
     }
 
     /**
@@ -816,6 +895,7 @@ public class Syntax {
      * @param number Valid number.
      */
     public void setNumber(Pattern number) {
+        checkMutable();
         this.number = number;
     }
 
@@ -824,6 +904,7 @@ public class Syntax {
      * @param label Label signal.
      */
     public void setLabel(Pattern label) {
+        checkMutable();
         this.label = label;
     }
 
@@ -832,6 +913,7 @@ public class Syntax {
      * @param comments Comments.
      */
     public void setComments(Pattern[] comments) {
+        checkMutable();
         this.comments = comments;
     }
 
@@ -840,6 +922,7 @@ public class Syntax {
      * @param group Command group.
      */
     public void setGroup(Pattern group) {
+        checkMutable();
         this.group = group;
     }
 
@@ -848,6 +931,7 @@ public class Syntax {
      * @param functionCall Function call.
      */
     public void setFunctionCall(Pattern functionCall) {
+        checkMutable();
         this.functionCall = functionCall;
     }
 
@@ -856,6 +940,7 @@ public class Syntax {
      * @param functionCallPathSeparator Function call path separator.
      */
     public void setFunctionCallPathSeparator(Pattern functionCallPathSeparator) {
+        checkMutable();
         this.functionCallPathSeparator = functionCallPathSeparator;
     }
 
@@ -864,6 +949,7 @@ public class Syntax {
      * @param functionCallParametersBegin Function call parameters begin.
      */
     public void setFunctionCallParametersBegin(Pattern functionCallParametersBegin) {
+        checkMutable();
         this.functionCallParametersBegin = functionCallParametersBegin;
     }
 
@@ -872,6 +958,7 @@ public class Syntax {
      * @param functionCallParametersEnd Function call parameters end.
      */
     public void setFunctionCallParametersEnd(Pattern functionCallParametersEnd) {
+        checkMutable();
         this.functionCallParametersEnd = functionCallParametersEnd;
     }
 
@@ -880,6 +967,7 @@ public class Syntax {
      * @param functionCallParametersSeparator Function call parameters separator.
      */
     public void setFunctionCallParametersSeparator(Pattern functionCallParametersSeparator) {
+        checkMutable();
         this.functionCallParametersSeparator = functionCallParametersSeparator;
     }
     
@@ -888,6 +976,7 @@ public class Syntax {
      * @param array Array.
      */
     public void setArray(Pattern array) {
+        checkMutable();
         this.array = array;
     }
 
@@ -896,6 +985,7 @@ public class Syntax {
      * @param arrayCall Array call.
      */
     public void setArrayCall(Pattern arrayCall) {
+        checkMutable();
         this.arrayCall = arrayCall;
     }
 
@@ -904,6 +994,7 @@ public class Syntax {
      * @param arrayCallParametersBegin Array call parameters begin.
      */
     public void setArrayCallParametersBegin(Pattern arrayCallParametersBegin) {
+        checkMutable();
         this.arrayCallParametersBegin = arrayCallParametersBegin;
     }
 
@@ -912,6 +1003,7 @@ public class Syntax {
      * @param arrayCallParametersEnd Array call parameters end.
      */
     public void setArrayCallParametersEnd(Pattern arrayCallParametersEnd) {
+        checkMutable();
         this.arrayCallParametersEnd = arrayCallParametersEnd;
     }
 
@@ -920,6 +1012,7 @@ public class Syntax {
      * @param arrayCallParametersSeparator Array call parameters separator.
      */
     public void setArrayCallParametersSeparator(Pattern arrayCallParametersSeparator) {
+        checkMutable();
         this.arrayCallParametersSeparator = arrayCallParametersSeparator;
     }
 
@@ -934,14 +1027,11 @@ public class Syntax {
         Matcher matcher = pattern.matcher(line);
         if (matcher.find()) {
             position = new SyntaxPosition(this, pattern);
-            position.setAllContent(matcher.group());
             if (matcher.groupCount() > 0) {
-                position.setGroup(matcher.group(1));
+                position.load(pattern, null, line, matcher.start(), matcher.end(), matcher.start(1), matcher.end(1));
             } else {
-                position.setGroup(matcher.group());
+                position.load(pattern, null, line, matcher.start(), matcher.end(), matcher.start(), matcher.end());
             }
-            position.setStart(matcher.start());
-            position.setEnd(matcher.end());
             return position;
         } else {
             position = new SyntaxPosition(this, pattern);
@@ -952,22 +1042,22 @@ public class Syntax {
     }
 
     /**
-     * Find the last operator.
-     * @param script Script where find the operator.
+     * Find the last position of the pattern.
+     * @param script Script where find the pattern.
+     * @param pattern Pattern.
      * @return Position.
      */
     public SyntaxPosition matcherLastPosition(String script, Pattern pattern) {
-        SyntaxPosition syntaxPosition = null;
-        SyntaxPosition syntaxPositionFinal = new SyntaxPosition(this, Pattern.compile(""));
-        while (true) {
-            syntaxPosition = matcherPosition(script, pattern);
-            if (syntaxPosition.getStart() != -1) {
-                script = script.substring(syntaxPosition.getEnd());
-                syntaxPositionFinal = syntaxPosition;
-            } else {
-                return syntaxPositionFinal;
-            }
+        SyntaxPosition position = new SyntaxPosition(this, pattern);
+        Matcher matcher = pattern.matcher(script);
+        int from = 0;
+        while (from <= script.length() && matcher.find(from)) {
+            position.load(pattern, null, script, matcher.start(), matcher.end(),
+                    matcher.groupCount() > 0 ? matcher.start(1) : matcher.start(),
+                    matcher.groupCount() > 0 ? matcher.end(1) : matcher.end());
+            from = matcher.end() > matcher.start() ? matcher.end() : matcher.end() + 1;
         }
+        return position;
     }
 
     /**
@@ -977,10 +1067,7 @@ public class Syntax {
      * @return Is equals.
      */
     public boolean matcherEquals(String line, Pattern pattern) {
-        Boolean b = null;
-        Matcher matcher = pattern.matcher(line);
-        b = Boolean.valueOf(matcher.matches());
-        return b;
+        return pattern.matcher(line).matches();
     }
 
     /**
@@ -989,7 +1076,20 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition firstOperatorLogical(String script) {
-        return firstOperator(script, getOperatorAnd(), getOperatorOr());
+        return first(getOperatorsLogical(), script);
+    }
+
+    /**
+     * Find the first logical operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean firstOperatorLogical(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsLogical().first(script, start, end, position);
     }
 
     /**
@@ -998,7 +1098,20 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition lastOperatorLogical(String script) {
-        return lastOperator(script, getOperatorAnd(), getOperatorOr());
+        return last(getOperatorsLogical(), script);
+    }
+
+    /**
+     * Find the last logical operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean lastOperatorLogical(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsLogical().last(script, start, end, position);
     }
 
     /**
@@ -1007,8 +1120,20 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition firstOperatorConditional(String script) {
-        return firstOperator(script, getOperatorEqual(), getOperatorNotEqual(),
-                getOperatorGreater(), getOperatorLess(), getOperatorGreaterEqual(), getOperatorLessEqual());
+        return first(getOperatorsConditional(), script);
+    }
+
+    /**
+     * Find the first conditional operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean firstOperatorConditional(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsConditional().first(script, start, end, position);
     }
 
     /**
@@ -1017,8 +1142,20 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition lastOperatorConditional(String script) {
-        return lastOperator(script, getOperatorEqual(), getOperatorNotEqual(),
-                getOperatorGreater(), getOperatorLess(), getOperatorGreaterEqual(), getOperatorLessEqual());
+        return last(getOperatorsConditional(), script);
+    }
+
+    /**
+     * Find the last conditional operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean lastOperatorConditional(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsConditional().last(script, start, end, position);
     }
     
     /**
@@ -1027,8 +1164,20 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition firstOperatorMathematic(String script) {
-        return firstOperator(script, getOperatorAddition(), getOperatorSubtraction(),
-                getOperatorMultiplication(), getOperatorDivision(), getOperatorModules());
+        return first(getOperatorsMathematic(), script);
+    }
+
+    /**
+     * Find the first mathematic operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean firstOperatorMathematic(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsMathematic().first(script, start, end, position);
     }
 
     /**
@@ -1037,53 +1186,332 @@ public class Syntax {
      * @return Position.
      */
     public SyntaxPosition lastOperatorMathematic(String script) {
-        return lastOperator(script, getOperatorAddition(), getOperatorSubtraction(),
-                getOperatorMultiplication(), getOperatorDivision(), getOperatorModules());
+        return last(getOperatorsMathematic(), script);
+    }
+
+    /**
+     * Find the last mathematic operator between the start and end index, the
+     * result is loaded in the position given without create new objects.
+     * @param script Script where find the operator.
+     * @param start Start index.
+     * @param end End index.
+     * @param position Position to load the result.
+     * @return If the operator was found.
+     */
+    public boolean lastOperatorMathematic(String script, int start, int end, SyntaxPosition position) {
+        return getOperatorsMathematic().last(script, start, end, position);
+    }
+
+    /**
+     * Find the first mathematic operator with priority: multiplication,
+     * division and modules.
+     * @param script Script where find the operator.
+     * @return Position.
+     */
+    public SyntaxPosition firstOperatorPriority(String script) {
+        return first(getOperatorsPriority(), script);
     }
 
     /**
      * Find the first operator.
      * @param script Script where find the operator.
+     * @param patterns Operators patterns.
      * @return Position.
      */
     public SyntaxPosition firstOperator(String script, Pattern... patterns) {
-        SyntaxPosition first = null;
-        SyntaxPosition[] syntaxPositions = new SyntaxPosition[patterns.length];
-        for (int i = 0; i < patterns.length; i++) {
-            syntaxPositions[i] = matcherPosition(script, patterns[i]);
-        }
-        first = new SyntaxPosition(this, Pattern.compile(""));
-        for (int i = 0; i < syntaxPositions.length; i++) {
-            if ((syntaxPositions[i].getStart() > -1 && (first.getStart() == -1 || syntaxPositions[i].getStart() < first.getStart()))
-                    || (syntaxPositions[i].getStart() == first.getStart() && syntaxPositions[i].getEnd() > first.getEnd())) {
-                first = syntaxPositions[i];
-            }
-        }
-        return first;
+        return first(new Operators(this, patterns), script);
     }
 
     /**
      * Find the last operator.
      * @param script Script where find the operator.
+     * @param patterns Operators patterns.
      * @return Position.
      */
     public SyntaxPosition lastOperator(String script, Pattern... patterns) {
-        SyntaxPosition syntaxPositionFinal = null;
-        syntaxPositionFinal = new SyntaxPosition(this, Pattern.compile(""));
-        while (true) {
-            SyntaxPosition syntaxPosition = firstOperator(script, patterns);
-            String spaces = "";
-            if (syntaxPosition.getStart() != -1) {
-                for (int k = syntaxPosition.getStart(); k < syntaxPosition.getEnd(); k++) {
-                    spaces = spaces.concat(" ");
+        return last(new Operators(this, patterns), script);
+    }
+
+    /**
+     * Operator of the pattern.
+     * @param pattern Pattern.
+     * @return Operator or null if the pattern is not an operator.
+     */
+    public Operator getOperator(Pattern pattern) {
+        String p = pattern.pattern();
+        if (p.equals(getOperatorAnd().pattern())) {
+            return Operator.AND;
+        }
+        if (p.equals(getOperatorOr().pattern())) {
+            return Operator.OR;
+        }
+        if (p.equals(getOperatorEqual().pattern())) {
+            return Operator.EQUAL;
+        }
+        if (p.equals(getOperatorNotEqual().pattern())) {
+            return Operator.NOT_EQUAL;
+        }
+        if (p.equals(getOperatorGreater().pattern())) {
+            return Operator.GREATER;
+        }
+        if (p.equals(getOperatorLess().pattern())) {
+            return Operator.LESS;
+        }
+        if (p.equals(getOperatorGreaterEqual().pattern())) {
+            return Operator.GREATER_EQUAL;
+        }
+        if (p.equals(getOperatorLessEqual().pattern())) {
+            return Operator.LESS_EQUAL;
+        }
+        if (p.equals(getOperatorAddition().pattern())) {
+            return Operator.ADDITION;
+        }
+        if (p.equals(getOperatorSubtraction().pattern())) {
+            return Operator.SUBTRACTION;
+        }
+        if (p.equals(getOperatorMultiplication().pattern())) {
+            return Operator.MULTIPLICATION;
+        }
+        if (p.equals(getOperatorDivision().pattern())) {
+            return Operator.DIVISION;
+        }
+        if (p.equals(getOperatorModules().pattern())) {
+            return Operator.MODULES;
+        }
+        return null;
+    }
+
+    private SyntaxPosition first(Operators operators, String script) {
+        SyntaxPosition position = new SyntaxPosition(this);
+        operators.first(script, 0, script.length(), position);
+        return position;
+    }
+
+    private SyntaxPosition last(Operators operators, String script) {
+        SyntaxPosition position = new SyntaxPosition(this);
+        operators.last(script, 0, script.length(), position);
+        return position;
+    }
+
+    private void resetOperators() {
+        operatorsLogical = null;
+        operatorsConditional = null;
+        operatorsMathematic = null;
+        operatorsPriority = null;
+    }
+
+    private Operators getOperatorsLogical() {
+        if (operatorsLogical == null) {
+            operatorsLogical = new Operators(this, getOperatorAnd(), getOperatorOr());
+        }
+        return operatorsLogical;
+    }
+
+    private Operators getOperatorsConditional() {
+        if (operatorsConditional == null) {
+            operatorsConditional = new Operators(this, getOperatorEqual(), getOperatorNotEqual(),
+                    getOperatorGreater(), getOperatorLess(), getOperatorGreaterEqual(), getOperatorLessEqual());
+        }
+        return operatorsConditional;
+    }
+
+    private Operators getOperatorsMathematic() {
+        if (operatorsMathematic == null) {
+            operatorsMathematic = new Operators(this, getOperatorAddition(), getOperatorSubtraction(),
+                    getOperatorMultiplication(), getOperatorDivision(), getOperatorModules());
+        }
+        return operatorsMathematic;
+    }
+
+    private Operators getOperatorsPriority() {
+        if (operatorsPriority == null) {
+            operatorsPriority = new Operators(this, getOperatorMultiplication(), getOperatorDivision(), getOperatorModules());
+        }
+        return operatorsPriority;
+    }
+
+    /**
+     * Table of operators precompiled to be found with only one pass over the
+     * script. Operators defined only by symbols, optionally separated by
+     * "\\s*", are compared char by char. When any pattern is more complex
+     * the regular expressions are used.
+     */
+    private static class Operators {
+        private final Pattern[] patterns;
+        private final Operator[] operators;
+        private final char[][] symbols;
+        private final boolean[][] spaces;
+        private final boolean simple;
+
+        Operators(Syntax syntax, Pattern... patterns) {
+            this.patterns = patterns;
+            operators = new Operator[patterns.length];
+            symbols = new char[patterns.length][];
+            spaces = new boolean[patterns.length][];
+            boolean _simple = true;
+            for (int i = 0; i < patterns.length; i++) {
+                operators[i] = syntax.getOperator(patterns[i]);
+                if (_simple && !compile(i)) {
+                    _simple = false;
                 }
             }
-            if (syntaxPosition.getStart() != -1) {
-                script = script.substring(0, syntaxPosition.getStart()) + spaces + script.substring(syntaxPosition.getEnd());
-                syntaxPositionFinal = syntaxPosition;
+            simple = _simple;
+        }
+
+        private boolean compile(int index) {
+            Pattern pattern = patterns[index];
+            if (pattern.flags() != 0) {
+                return false;
+            }
+            String source = pattern.pattern();
+            char[] _symbols = new char[source.length()];
+            boolean[] _spaces = new boolean[source.length()];
+            int count = 0;
+            boolean space = false;
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                if (c == '\\') {
+                    if (i + 1 >= source.length()) {
+                        return false;
+                    }
+                    char n = source.charAt(i + 1);
+                    if (n == 's' && i + 2 < source.length() && source.charAt(i + 2) == '*') {
+                        if (count == 0 || space) {
+                            return false;
+                        }
+                        space = true;
+                        i += 2;
+                        continue;
+                    } else if (Character.isLetterOrDigit(n)) {
+                        return false;
+                    }
+                    c = n;
+                    i++;
+                } else if ("[](){}.*+?^$|".indexOf(c) > -1) {
+                    return false;
+                }
+                _symbols[count] = c;
+                _spaces[count] = space;
+                space = false;
+                count++;
+            }
+            if (count == 0 || space) {
+                return false;
+            }
+            symbols[index] = new char[count];
+            spaces[index] = new boolean[count];
+            System.arraycopy(_symbols, 0, symbols[index], 0, count);
+            System.arraycopy(_spaces, 0, spaces[index], 0, count);
+            return true;
+        }
+
+        private int matchEnd(int index, String script, int position, int end) {
+            char[] _symbols = symbols[index];
+            boolean[] _spaces = spaces[index];
+            for (int i = 0; i < _symbols.length; i++) {
+                if (_spaces[i]) {
+                    while (position < end && isSpace(script.charAt(position))) {
+                        position++;
+                    }
+                }
+                if (position >= end || script.charAt(position) != _symbols[i]) {
+                    return -1;
+                }
+                position++;
+            }
+            return position;
+        }
+
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+        }
+
+        private int symbolAt(String script, int position, int end) {
+            char c = script.charAt(position);
+            int found = -1;
+            int foundEnd = -1;
+            for (int k = 0; k < symbols.length; k++) {
+                if (symbols[k][0] == c) {
+                    int e = matchEnd(k, script, position, end);
+                    if (e > foundEnd) {
+                        found = k;
+                        foundEnd = e;
+                    }
+                }
+            }
+            return found;
+        }
+
+        boolean first(String script, int start, int end, SyntaxPosition position) {
+            if (simple) {
+                for (int i = start; i < end; i++) {
+                    int k = symbolAt(script, i, end);
+                    if (k > -1) {
+                        int e = matchEnd(k, script, i, end);
+                        position.load(patterns[k], operators[k], script, i, e, i, e);
+                        return true;
+                    }
+                }
             } else {
-                return syntaxPositionFinal;
+                int found = -1;
+                int foundStart = -1;
+                int foundEnd = -1;
+                for (int k = 0; k < patterns.length; k++) {
+                    Matcher matcher = patterns[k].matcher(script);
+                    matcher.region(start, end);
+                    if (matcher.find()) {
+                        if ((found == -1 || matcher.start() < foundStart)
+                                || (matcher.start() == foundStart && matcher.end() > foundEnd)) {
+                            found = k;
+                            foundStart = matcher.start();
+                            foundEnd = matcher.end();
+                        }
+                    }
+                }
+                if (found > -1) {
+                    position.load(patterns[found], operators[found], script, foundStart, foundEnd, foundStart, foundEnd);
+                    return true;
+                }
+            }
+            position.load(null, null, null, -1, -1, -1, -1);
+            return false;
+        }
+
+        boolean last(String script, int start, int end, SyntaxPosition position) {
+            if (simple) {
+                int found = -1;
+                int foundStart = -1;
+                int foundEnd = -1;
+                int i = start;
+                while (i < end) {
+                    int k = symbolAt(script, i, end);
+                    if (k > -1) {
+                        found = k;
+                        foundStart = i;
+                        foundEnd = matchEnd(k, script, i, end);
+                        i = foundEnd;
+                    } else {
+                        i++;
+                    }
+                }
+                if (found > -1) {
+                    position.load(patterns[found], operators[found], script, foundStart, foundEnd, foundStart, foundEnd);
+                    return true;
+                }
+                position.load(null, null, null, -1, -1, -1, -1);
+                return false;
+            }
+            SyntaxPosition next = new SyntaxPosition(null);
+            boolean found = false;
+            while (start < end && first(script, start, end, next)) {
+                position.load(next);
+                found = true;
+                start = next.getEnd() > next.getStart() ? next.getEnd() : next.getEnd() + 1;
+            }
+            if (!found) {
+                position.load(null, null, null, -1, -1, -1, -1);
             }
+            return found;
         }
     }
-}
\ No newline at end of file
+}
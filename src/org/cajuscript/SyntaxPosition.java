@@ -28,13 +28,30 @@ import org.cajuscript.parser.Operation.Operator;
  * @author eduveks
  */
 public class SyntaxPosition {
+    private static final Pattern EMPTY = Pattern.compile("");
 
     private int start = -1;
     private int end = -1;
-    private String group = "";
-    private String allContent = "";
+    private String group = null;
+    private String allContent = null;
+    private String source = null;
+    private int groupStart = -1;
+    private int groupEnd = -1;
+    private Syntax syntax = null;
+    private Pattern patternMatched = null;
     private Operator operator = null;
-    private int pattern = 0;
+    private boolean operatorLoaded = false;
+
+    /**
+     * Newly instance to be reused by the syntax matchers, see
+     * {@link Syntax#firstOperatorMathematic(String, int, int, SyntaxPosition)}.
+     *
+     * @param syntax
+     *            Current syntax.
+     */
+    public SyntaxPosition(Syntax syntax) {
+        this.syntax = syntax;
+    }
 
     /**
      * Newly instance to save useful data to manipulate dynamically the sintax.
@@ -45,51 +62,35 @@ public class SyntaxPosition {
      *            Parttern was matcher.
      */
     public SyntaxPosition(Syntax syntax, Pattern pattern) {
-        this.pattern = pattern.pattern().hashCode();
-        operator = getOperator(syntax);
+        this.syntax = syntax;
+        this.patternMatched = pattern;
     }
 
-    private Operator getOperator(Syntax syntax) {
-        if (pattern == syntax.getOperatorAnd().pattern().hashCode()) {
-            return Operator.AND;
-        }
-        if (pattern == syntax.getOperatorOr().pattern().hashCode()) {
-            return Operator.OR;
-        }
-        if (pattern == syntax.getOperatorEqual().pattern().hashCode()) {
-            return Operator.EQUAL;
-        }
-        if (pattern == syntax.getOperatorNotEqual().pattern().hashCode()) {
-            return Operator.NOT_EQUAL;
-        }
-        if (pattern == syntax.getOperatorGreater().pattern().hashCode()) {
-            return Operator.GREATER;
-        }
-        if (pattern == syntax.getOperatorLess().pattern().hashCode()) {
-            return Operator.LESS;
-        }
-        if (pattern == syntax.getOperatorGreaterEqual().pattern().hashCode()) {
-            return Operator.GREATER_EQUAL;
-        }
-        if (pattern == syntax.getOperatorLessEqual().pattern().hashCode()) {
-            return Operator.LESS_EQUAL;
-        }
-        if (pattern == syntax.getOperatorAddition().pattern().hashCode()) {
-            return Operator.ADDITION;
-        }
-        if (pattern == syntax.getOperatorSubtraction().pattern().hashCode()) {
-            return Operator.SUBTRACTION;
-        }
-        if (pattern == syntax.getOperatorMultiplication().pattern().hashCode()) {
-            return Operator.MULTIPLICATION;
-        }
-        if (pattern == syntax.getOperatorDivision().pattern().hashCode()) {
-            return Operator.DIVISION;
-        }
-        if (pattern == syntax.getOperatorModules().pattern().hashCode()) {
-            return Operator.MODULES;
-        }
-        return null;
+    /**
+     * Load the position found by a matcher, the texts caught are only
+     * created when requested.
+     */
+    void load(Pattern pattern, Operator operator, String source, int start, int end, int groupStart, int groupEnd) {
+        this.patternMatched = pattern;
+        this.operator = operator;
+        this.operatorLoaded = operator != null;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.groupStart = groupStart;
+        this.groupEnd = groupEnd;
+        this.group = null;
+        this.allContent = null;
+    }
+
+    /**
+     * Copy all data from other position.
+     */
+    void load(SyntaxPosition position) {
+        load(position.patternMatched, position.operator, position.source, position.start, position.end, position.groupStart, position.groupEnd);
+        this.operatorLoaded = position.operatorLoaded;
+        this.group = position.group;
+        this.allContent = position.allContent;
     }
 
     /**
@@ -136,6 +137,9 @@ public class SyntaxPosition {
      * @return Text caught.
      */
     public String getGroup() {
+        if (group == null) {
+            group = source != null && groupStart > -1 ? source.substring(groupStart, groupEnd) : "";
+        }
         return group;
     }
 
@@ -155,6 +159,9 @@ public class SyntaxPosition {
      * @return Content caught.
      */
     public String getAllContent() {
+        if (allContent == null) {
+            allContent = source != null && start > -1 ? source.substring(start, end) : "";
+        }
         return allContent;
     }
 
@@ -174,6 +181,10 @@ public class SyntaxPosition {
      * @return Operator
      */
     public Operator getOperator() {
+        if (!operatorLoaded) {
+            operator = patternMatched != null ? syntax.getOperator(patternMatched) : null;
+            operatorLoaded = true;
+        }
         return operator;
     }
     /**
@@ -182,7 +193,7 @@ public class SyntaxPosition {
      * @return Hash code
      */
     public int getPatternHashCode() {
-        return pattern;
+        return patternMatched != null ? getPatternHashCode(patternMatched) : getPatternHashCode(EMPTY);
     }
 
     /**
@@ -19,8 +19,6 @@
 
 package org.cajuscript;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.cajuscript.cmd.Reflection;
 import org.cajuscript.cmd.ScriptCommand;
 import org.cajuscript.parser.Function;
@@ -42,7 +40,8 @@ import org.cajuscript.parser.Function;
  * </pre></blockquote></p>
  * @author eduveks
  */
-public class Value implements Cloneable {
+public class Value implements Cloneable, java.io.Serializable {
+    private static final long serialVersionUID = 1L;
     /**
      * Types of values.
      */
@@ -55,6 +54,12 @@ public class Value implements Cloneable {
     public static enum TypeNumber {
         INTEGER, LONG, DOUBLE, FLOAT
     }
+    /**
+     * Flags of the values returned by the elements to control the flow.
+     */
+    public static enum Flag {
+        NONE, IF, BREAK, CONTINUE
+    }
     private Object value = null;
     private int valueNumberInteger = 0;
     private long valueNumberLong = 0;
@@ -67,13 +72,13 @@ public class Value implements Cloneable {
     private Class classType = null;
     private boolean _isCommand = false;
     private String command = "";
-    private CajuScript cajuScript = null;
-    private Context context = null;
-    private Syntax syntax = null;
-    private String flag = "";
-    private ScriptCommand scriptCommand = null;
+    private transient CajuScript cajuScript = null;
+    private transient Context context = null;
+    private transient Syntax syntax = null;
+    private Flag flag = Flag.NONE;
+    private int flagTarget = 0;
+    private transient ScriptCommand scriptCommand = null;
     private String script = null;
-    private static Pattern unicodePattern = Pattern.compile("\\\\u[a-fA-F0-9][a-fA-F0-9][a-fA-F0-9][a-fA-F0-9]");
 
     /**
      * Create a new value.
@@ -118,41 +123,26 @@ public class Value implements Cloneable {
             script = script.trim();
             if (script.length() == 0) {
                 return;
-            } else if ((script.startsWith("'") && script.endsWith("'"))
-                        || (script.startsWith("\"") && script.endsWith("\""))) {
-                script = script.replace((CharSequence)"\\t", (CharSequence)"\t");
-                script = script.replace((CharSequence)"\\r", (CharSequence)"\r");
-                script = script.replace((CharSequence)"\\n", (CharSequence)"\n");
-                script = script.replace((CharSequence)"\\\"", (CharSequence)"\"");
-                script = script.replace((CharSequence)"\\\\", (CharSequence)"\\");
-                script = script.replace((CharSequence)"\\'", (CharSequence)"'");
-                Matcher m = unicodePattern.matcher(script);
-                while (m.find()) {
-                    script = script.replace((CharSequence)m.group(), (CharSequence)Character.toString((char)Integer.valueOf(m.group().substring(2), 16).intValue()));
-                }
+            } else if (isString(script)) {
                 type = Type.STRING;
-                valueString = script.substring(1, script.length() - 1);
+                valueString = unescape(script, 1, script.length() - 1);
                 value = valueString;
             } else if (syntax.matcherEquals(script, syntax.getNull())) {
                 value = null;
+            } else if (isNumber(script)) {
+                loadNumberValue(script, true);
+            } else if (script.equalsIgnoreCase("true")) {
+                value = true;
+                valueBoolean = true;
+                valueString = "true";
+                type = Type.BOOLEAN;
+            } else if (script.equalsIgnoreCase("false")) {
+                value = false;
+                valueBoolean = false;
+                valueString = "false";
+                type = Type.BOOLEAN;
             } else {
-                try {
-                    loadNumberValue(script, true);
-                } catch (Exception e) {
-                    if (script.toLowerCase().equals("true")) {
-                        value = true;
-                        valueBoolean = true;
-                        valueString = "true";
-                        type = Type.BOOLEAN;
-                    } else if (script.toLowerCase().equals("false")) {
-                        value = false;
-                        valueBoolean = false;
-                        valueString = "false";
-                        type = Type.BOOLEAN;
-                    } else {
-                        setCommand(script);
-                    }
-                }
+                setCommand(script);
             }
         } catch (CajuScriptException e) {
             throw e;
@@ -209,6 +199,18 @@ public class Value implements Cloneable {
         return command;
     }
     
+    /**
+     * Set command already resolved by other value with the same command.
+     * @param script Command script.
+     * @param scriptCommand Script command resolved.
+     * @throws org.cajuscript.CajuScriptException Errors loading command.
+     */
+    public void setCommand(String script, ScriptCommand scriptCommand) throws CajuScriptException {
+        this.script = script;
+        this.scriptCommand = scriptCommand;
+        setCommand(script);
+    }
+
     /**
      * Set command.
      * @param script Command script.
@@ -216,6 +218,7 @@ public class Value implements Cloneable {
      */
     public void setCommand(String script) throws CajuScriptException {
         _isCommand = true;
+        Object result = getValue();
         Value v = null;
         boolean varMode = false;
         if (scriptCommand == null || !scriptCommand.getScript().equals(script)) {
@@ -314,7 +317,7 @@ public class Value implements Cloneable {
                     break;
                 case NATIVE_OBJECT_ROOT:
                     scriptCommand.setValue(cajuScript.getVar(scriptCommand.getVar()));
-                    value = Reflection.invokeNative(cajuScript, context, syntax, scriptCommand.getValue().getValue(), scriptCommand.getScript(), scriptCommand);
+                    result = Reflection.invokeNative(cajuScript, context, syntax, scriptCommand.getValue().getValue(), scriptCommand.getScript(), scriptCommand);
                     break;
                 case NATIVE_OBJECT:
                     scriptCommand.setValue(context.getVar(scriptCommand.getVar()));
@@ -328,17 +331,15 @@ public class Value implements Cloneable {
                     } else {
                         _script = scriptCommand.getFinalScript();
                     }
-                    value = Reflection.invokeNative(cajuScript, context, syntax, scriptCommand.getValue() == null ? null : scriptCommand.getValue().getValue(), _script, scriptCommand);
+                    result = Reflection.invokeNative(cajuScript, context, syntax, scriptCommand.getValue() == null ? null : scriptCommand.getValue().getValue(), _script, scriptCommand);
                     break;
                 case NATIVE_CLASS:
-                    value = Reflection.invokeNative(cajuScript, context, syntax, null, scriptCommand.getScript(), scriptCommand);
+                    result = Reflection.invokeNative(cajuScript, context, syntax, null, scriptCommand.getScript(), scriptCommand);
                     break;
                 case FUNCTION:
-                    Context funcContext = new Context();
                     Function func = cajuScript.getFunc(scriptCommand.getClassPath());
-                    Reflection.invokeValues(cajuScript, context, syntax, script, scriptCommand, null, null, null);
-                    value = func.invoke(cajuScript, funcContext, syntax, Reflection.invokeValues(cajuScript, context, syntax, null, scriptCommand, null, null, null)).getValue();
-                    break;
+                    copyValue(func.callValue(cajuScript, syntax, Reflection.invokeFunctionArguments(cajuScript, context, syntax, script, scriptCommand)));
+                    return;
                 case ARRAY:
                     type = Type.ARRAY;
                     throw new Error("Array constructor not implemented yet.");
@@ -357,9 +358,10 @@ public class Value implements Cloneable {
                 }
                 throw CajuScriptException.create(cajuScript, context, script.concat(" is not defined"));
             }
-            value = v.getValue();
+            copyValue(v);
+            return;
         }
-        setValue(value);
+        setValue(result);
     }
     
     /**
@@ -367,6 +369,22 @@ public class Value implements Cloneable {
      * @return String value.
      */
     public String getStringValue() {
+        if (valueString == null) {
+            switch (typeNumber) {
+                case INTEGER:
+                    valueString = Integer.toString(valueNumberInteger);
+                    break;
+                case FLOAT:
+                    valueString = Float.toString(valueNumberFloat);
+                    break;
+                case LONG:
+                    valueString = Long.toString(valueNumberLong);
+                    break;
+                default:
+                    valueString = Double.toString(valueNumberDouble);
+                    break;
+            }
+        }
         return valueString;
     }
     
@@ -442,8 +460,152 @@ public class Value implements Cloneable {
      * @return Value.
      */
     public Object getValue() {
+        if (value == null && type == Type.NUMBER) {
+            switch (typeNumber) {
+                case INTEGER:
+                    value = Integer.valueOf(valueNumberInteger);
+                    break;
+                case FLOAT:
+                    value = Float.valueOf(valueNumberFloat);
+                    break;
+                case LONG:
+                    value = Long.valueOf(valueNumberLong);
+                    break;
+                default:
+                    value = Double.valueOf(valueNumberDouble);
+                    break;
+            }
+        }
         return value;
     }
+
+    /**
+     * Define the value with the value of other, without boxing numbers.
+     * @param v Value to be copied.
+     * @throws CajuScriptException Errors defining the value.
+     */
+    public void copyValue(Value v) throws CajuScriptException {
+        if (v.type != Type.NUMBER) {
+            setValue(v.getValue());
+            return;
+        }
+        value = v.value;
+        valueNumberInteger = v.valueNumberInteger;
+        valueNumberLong = v.valueNumberLong;
+        valueNumberFloat = v.valueNumberFloat;
+        valueNumberDouble = v.valueNumberDouble;
+        valueString = v.valueString;
+        type = Type.NUMBER;
+        typeNumber = v.typeNumber;
+        classType = v.classType;
+    }
+
+    /**
+     * Define the value as integer, the object of the value is only created
+     * when requested by {@link #getValue()}.
+     * @param i Integer value.
+     */
+    public void setInt(int i) {
+        value = null;
+        valueNumberInteger = i;
+        valueNumberLong = (long)i;
+        valueNumberFloat = (float)i;
+        valueNumberDouble = (double)i;
+        valueString = null;
+        type = Type.NUMBER;
+        typeNumber = TypeNumber.INTEGER;
+        classType = Integer.class;
+    }
+
+    /**
+     * Define the value as long, the object of the value is only created
+     * when requested by {@link #getValue()}.
+     * @param l Long value.
+     */
+    public void setLong(long l) {
+        value = null;
+        valueNumberInteger = 0;
+        valueNumberLong = l;
+        valueNumberFloat = 0;
+        valueNumberDouble = (double)l;
+        valueString = null;
+        type = Type.NUMBER;
+        typeNumber = TypeNumber.LONG;
+        classType = Long.class;
+    }
+
+    /**
+     * Define the value as float, the object of the value is only created
+     * when requested by {@link #getValue()}.
+     * @param f Float value.
+     */
+    public void setFloat(float f) {
+        value = null;
+        valueNumberInteger = 0;
+        valueNumberLong = 0;
+        valueNumberFloat = f;
+        valueNumberDouble = (double)f;
+        valueString = null;
+        type = Type.NUMBER;
+        typeNumber = TypeNumber.FLOAT;
+        classType = Float.class;
+    }
+
+    /**
+     * Define the value as double, the object of the value is only created
+     * when requested by {@link #getValue()}.
+     * @param d Double value.
+     */
+    public void setDouble(double d) {
+        value = null;
+        valueNumberInteger = 0;
+        valueNumberLong = 0;
+        valueNumberFloat = 0;
+        valueNumberDouble = d;
+        valueString = null;
+        type = Type.NUMBER;
+        typeNumber = TypeNumber.DOUBLE;
+        classType = Double.class;
+    }
+
+    /**
+     * Define the value as boolean.
+     * @param b Boolean value.
+     */
+    public void setBoolean(boolean b) {
+        value = b ? Boolean.TRUE : Boolean.FALSE;
+        valueNumberInteger = 0;
+        valueNumberLong = 0;
+        valueNumberFloat = 0;
+        valueNumberDouble = 0;
+        valueBoolean = b;
+        valueString = b ? "true" : "false";
+        type = Type.BOOLEAN;
+        typeNumber = null;
+        classType = Boolean.class;
+    }
+
+    /**
+     * Define the value as string.
+     * @param s String value.
+     */
+    public void setString(String s) {
+        if (s == null) {
+            value = null;
+            valueString = "";
+            type = Type.NULL;
+        } else {
+            value = s;
+            valueString = s;
+            type = Type.STRING;
+        }
+        valueNumberInteger = 0;
+        valueNumberLong = 0;
+        valueNumberFloat = 0;
+        valueNumberDouble = 0;
+        typeNumber = null;
+        classType = String.class;
+    }
     
     /**
      * Define the value.
@@ -498,7 +660,7 @@ public class Value implements Cloneable {
             classType = Long.class;
             return;
         } else if (value instanceof Double) {
-            valueNumberDouble = (float)((Double)value).doubleValue();
+            valueNumberDouble = ((Double)value).doubleValue();
             valueString = Double.toString(valueNumberDouble);
             type = Type.NUMBER;
             typeNumber = TypeNumber.DOUBLE;
@@ -570,27 +732,45 @@ public class Value implements Cloneable {
 
     /**
      * Get flag definition.
-     * @return Information.
+     * @return Flag.
      */
-    public String getFlag() {
+    public Flag getFlag() {
         return flag;
     }
     
     /**
      * Set flag definition.
-     * @param flag Information.
+     * @param flag Flag.
      */
-    public void setFlag(String flag) {
+    public void setFlag(Flag flag) {
         this.flag = flag;
     }
     
+    /**
+     * Get index of the loop target of the break or continue flag.
+     * @return Loop index, 0 is none.
+     */
+    public int getFlagTarget() {
+        return flagTarget;
+    }
+    
+    /**
+     * Set flag definition with the index of the loop target.
+     * @param flag Flag.
+     * @param flagTarget Loop index.
+     */
+    public void setFlag(Flag flag, int flagTarget) {
+        this.flag = flag;
+        this.flagTarget = flagTarget;
+    }
+    
     /**
      * Get value in string.
      * @return Value in string.
      */
     @Override
     public String toString() {
-        if (value == null) {
+        if (getValue() == null) {
             return "";
         }
         return value.toString();
@@ -621,13 +801,13 @@ public class Value implements Cloneable {
             typeNumber = TypeNumber.LONG;
             return;
         } else if (o instanceof Double) {
-            valueNumberDouble = (float)((Double)o).doubleValue();
+            valueNumberDouble = ((Double)o).doubleValue();
             valueString = Double.toString(valueNumberDouble);
             type = Type.NUMBER;
             typeNumber = TypeNumber.DOUBLE;
             return;
         }
-        Double v = (Double)cajuScript.cast(o, "d");
+        Double v = o instanceof String ? Double.valueOf((String)o) : (Double)cajuScript.cast(o, "d");
         double d = v.doubleValue();
         if ((long)d == d) {
             if (d <= Integer.MAX_VALUE && d >= Integer.MIN_VALUE) {
@@ -657,6 +837,141 @@ public class Value implements Cloneable {
         }
     }
     
+    /**
+     * Value of the script when is a literal, string, number, boolean or null.
+     * Used to classify the literals in the parse, so in the execution the
+     * value is only copied.
+     * @param script Script
+     * @param syntax Syntax
+     * @return Value or null if the script is not a literal
+     * @throws CajuScriptException Errors loading the value.
+     */
+    public static Value literal(String script, Syntax syntax) throws CajuScriptException {
+        script = script.trim();
+        if (script.length() == 0 || !(isString(script) || isNumber(script)
+                || script.equalsIgnoreCase("true") || script.equalsIgnoreCase("false")
+                || syntax.matcherEquals(script, syntax.getNull()))) {
+            return null;
+        }
+        Value value = new Value(null, null, syntax);
+        value.setScript(script);
+        return value;
+    }
+
+    private static boolean isString(String s) {
+        char c = s.charAt(0);
+        return s.length() > 1 && (c == '\'' || c == '"') && s.charAt(s.length() - 1) == c;
+    }
+
+    /**
+     * If the script is a number, accepts the same decimal format of
+     * {@link Double#valueOf(String)}.
+     * @param s Script
+     * @return Is number
+     */
+    public static boolean isNumber(String s) {
+        int length = s.length();
+        int i = 0;
+        if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            i++;
+        }
+        if (s.startsWith("NaN", i)) {
+            return i + 3 == length;
+        } else if (s.startsWith("Infinity", i)) {
+            return i + 8 == length;
+        }
+        int digits = 0;
+        while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+            digits++;
+        }
+        if (i < length && s.charAt(i) == '.') {
+            i++;
+            while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int exponent = 0;
+            while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                i++;
+                exponent++;
+            }
+            if (exponent == 0) {
+                return false;
+            }
+        }
+        if (i < length && "fFdD".indexOf(s.charAt(i)) > -1) {
+            i++;
+        }
+        return i == length;
+    }
+
+    private static String unescape(String s, int begin, int end) {
+        int i = s.indexOf('\\', begin);
+        if (i == -1 || i >= end) {
+            return s.substring(begin, end);
+        }
+        StringBuilder sb = new StringBuilder(end - begin);
+        sb.append(s, begin, i);
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                switch (s.charAt(i + 1)) {
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case '"':
+                    case '\'':
+                    case '\\':
+                        c = s.charAt(i + 1);
+                        break;
+                    case 'u':
+                        int u = i + 6 <= end ? unicode(s, i + 2) : -1;
+                        if (u > -1) {
+                            sb.append((char)u);
+                            i += 5;
+                        } else {
+                            sb.append(c);
+                        }
+                        continue;
+                    default:
+                        sb.append(c);
+                        continue;
+                }
+                i++;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static int unicode(String s, int begin) {
+        int u = 0;
+        for (int i = begin; i < begin + 4; i++) {
+            int d = Character.digit(s.charAt(i), 16);
+            if (d == -1) {
+                return -1;
+            }
+            u = u * 16 + d;
+        }
+        return u;
+    }
+
     /**
      * Clone.
      * @return Object cloned.
@@ -679,6 +994,7 @@ public class Value implements Cloneable {
         v.context = this.context;
         v.syntax = this.syntax;
         v.flag = this.flag;
+        v.flagTarget = this.flagTarget;
         v.scriptCommand = this.scriptCommand;
         v.script = this.script;
         return v;
@@ -0,0 +1,220 @@
+/*
+ * InlineCache.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.cmd;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.cajuscript.CajuScript;
+
+/**
+ * Cache of the Java methods and constructors resolved in a call site.
+ * <p>Each entry is keyed by the class of the object invoked and by the
+ * classes of the arguments, and keeps a method handle with the conversion
+ * of the arguments already applied. So while the classes are the same the
+ * invocation is direct, without search the method again and without cast
+ * the arguments.</p>
+ * <p>Are kept up to {@link #LIMIT} entries by call site, when the call site
+ * has more classes the new classes are always resolved by reflection.</p>
+ * <p>Is thread safe, the entries are an immutable array replaced when a new
+ * entry is added, so the call sites can be shared by many threads.</p>
+ * @author eduveks
+ */
+public class InlineCache {
+    /**
+     * Maximum number of entries by call site.
+     */
+    public static final int LIMIT = 4;
+    /**
+     * Returned by {@link #invoke} when the method handle fails before the
+     * method is invoked, converting the arguments, so the invocation must be
+     * done by reflection.
+     */
+    public static final Object FALLBACK = new Object();
+    private static final MethodHandle CAST;
+    private static final MethodHandle TARGET_EXCEPTION;
+    static {
+        try {
+            CAST = MethodHandles.lookup().findVirtual(CajuScript.class, "cast",
+                    MethodType.methodType(Object.class, Object.class, String.class));
+            TARGET_EXCEPTION = MethodHandles.lookup().findConstructor(TargetException.class,
+                    MethodType.methodType(void.class, Throwable.class));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    private volatile Entry[] entries = new Entry[0];
+
+    /**
+     * Create new InlineCache.
+     */
+    public InlineCache() {
+
+    }
+
+    /**
+     * Number of entries.
+     * @return Size
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Find the method handle to the classes of the object and of the values.
+     * @param o Object invoked, null to static methods and constructors
+     * @param values Arguments values
+     * @return Method handle or null if was not cached
+     */
+    public MethodHandle find(Object o, Object[] values) {
+        Class<?> receiver = o == null ? null : o.getClass();
+        for (Entry entry : entries) {
+            if (entry.receiver == receiver && matches(entry.arguments, values)) {
+                return entry.handle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cache the method to the classes of the object and of the values.
+     * @param cajuScript CajuScript instance, used to cast the arguments
+     * @param o Object invoked, null to static methods
+     * @param values Arguments values
+     * @param method Method resolved
+     * @return Method handle or null if the method is not accessible by handle
+     */
+    public MethodHandle add(CajuScript cajuScript, Object o, Object[] values, Method method) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return add(cajuScript, o, values, method.getParameterTypes(), handle);
+    }
+
+    /**
+     * Cache the constructor to the classes of the values.
+     * @param cajuScript CajuScript instance, used to cast the arguments
+     * @param values Arguments values
+     * @param constructor Constructor resolved
+     * @return Method handle or null if the constructor is not accessible by handle
+     */
+    public MethodHandle add(CajuScript cajuScript, Object[] values, Constructor<?> constructor) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflectConstructor(constructor).asFixedArity();
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        return add(cajuScript, null, values, constructor.getParameterTypes(), handle);
+    }
+
+    /**
+     * Invoke the method handle of this cache.
+     * @param handle Method handle returned by find or add
+     * @param o Object invoked, null to static methods and constructors
+     * @param values Arguments values
+     * @return Object returned by the invocation, or {@link #FALLBACK} if the
+     *         arguments cannot be converted and the method was not invoked
+     * @throws java.lang.reflect.InvocationTargetException Exception throwed by the method
+     */
+    public static Object invoke(MethodHandle handle, Object o, Object[] values) throws InvocationTargetException {
+        try {
+            return (Object)handle.invokeExact(o, values);
+        } catch (TargetException e) {
+            throw new InvocationTargetException(e.getCause());
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) {
+            return FALLBACK;
+        }
+    }
+
+    private MethodHandle add(CajuScript cajuScript, Object o, Object[] values, Class<?>[] types, MethodHandle handle) {
+        handle = MethodHandles.catchException(handle, Throwable.class, MethodHandles.filterArguments(
+                MethodHandles.throwException(handle.type().returnType(), TargetException.class), 0, TARGET_EXCEPTION));
+        Class<?>[] classes = new Class<?>[values.length];
+        for (int x = 0; x < types.length; x++) {
+            classes[x] = values[x] == null ? null : values[x].getClass();
+            if (types[x].isPrimitive() && classes[x] != null
+                    && MethodType.methodType(types[x]).wrap().returnType() != classes[x]) {
+                MethodHandle cast = MethodHandles.insertArguments(CAST, 2, types[x].getName()).bindTo(cajuScript);
+                handle = MethodHandles.filterArguments(handle, x + 1, cast.asType(MethodType.methodType(types[x], Object.class)));
+            }
+        }
+        handle = handle.asType(handle.type().generic()).asSpreader(Object[].class, types.length);
+        synchronized (this) {
+            Entry[] current = entries;
+            if (current.length < LIMIT && find(o, values) == null) {
+                Entry[] _entries = new Entry[current.length + 1];
+                System.arraycopy(current, 0, _entries, 0, current.length);
+                _entries[current.length] = new Entry(o == null ? null : o.getClass(), classes, handle);
+                entries = _entries;
+            }
+        }
+        return handle;
+    }
+
+    private static boolean matches(Class<?>[] classes, Object[] values) {
+        if (classes.length != values.length) {
+            return false;
+        }
+        for (int x = 0; x < classes.length; x++) {
+            if (classes[x] != (values[x] == null ? null : values[x].getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry {
+        private final Class<?> receiver;
+        private final Class<?>[] arguments;
+        private final MethodHandle handle;
+
+        private Entry(Class<?> receiver, Class<?>[] arguments, MethodHandle handle) {
+            this.receiver = receiver;
+            this.arguments = arguments;
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Exception throwed by the method invoked, to be distinguished of the
+     * errors converting the arguments.
+     */
+    private static final class TargetException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private TargetException(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
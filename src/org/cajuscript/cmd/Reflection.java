@@ -19,6 +19,7 @@
 
 package org.cajuscript.cmd;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -254,8 +255,36 @@ public class Reflection {
         }
     }
 
+    /**
+     * Invoke a method of the object.
+     * @param cajuScript CajuScript instance
+     * @param o Object to be invoked
+     * @param name Method name
+     * @param values Arguments values
+     * @param scriptCommand ScriptCommand instance to save the method in cache
+     * @return Object returned by invokation
+     * @throws org.cajuscript.CajuScriptException Invocation exceptions
+     */
+    public static Object invokeMethod(CajuScript cajuScript, Object o, String name, Object[] values, ScriptCommand scriptCommand) throws CajuScriptException {
+        try {
+            return invokeMethod(cajuScript, o.getClass(), o, name, values, name, scriptCommand);
+        } catch (CajuScriptException e) {
+            throw e;
+        } catch (Exception e) {
+            throw CajuScriptException.create(cajuScript, cajuScript.getContext(), e.getMessage(), e);
+        }
+    }
+
     private static Object invokeConstructor(CajuScript cajuScript, Class<?> c, Object[] values, String script, ScriptCommand scriptCommand) throws Exception {
-        if (scriptCommand.getConstructor() != null) {
+        InlineCache cache = scriptCommand.getInlineCache();
+        MethodHandle handle = cache.find(null, values);
+        if (handle != null) {
+            Object r = InlineCache.invoke(handle, null, values);
+            if (r != InlineCache.FALLBACK) {
+                return r;
+            }
+        }
+        if (scriptCommand.getConstructor() != null && cache.size() == InlineCache.LIMIT) {
             try {
                 return scriptCommand.getConstructor().newInstance(getParams(cajuScript, values, scriptCommand.getConstructor().getParameterTypes(), scriptCommand));
             } catch (ClassCastException e) { }
@@ -281,6 +310,13 @@ public class Reflection {
             if (foundMethod(cajuScript, values, cx, allowAutoPrimitiveCast, scriptCommand)) {
                 scriptCommand.setConstructor(cn[x]);
                 scriptCommand.setType(ScriptCommand.Type.NATIVE_OBJECT);
+                handle = cache.add(cajuScript, values, cn[x]);
+                if (handle != null) {
+                    Object r = InlineCache.invoke(handle, null, values);
+                    if (r != InlineCache.FALLBACK) {
+                        return r;
+                    }
+                }
                 return cn[x].newInstance(getParams(cajuScript, values, cx, scriptCommand));
             }
         }
@@ -288,7 +324,15 @@ public class Reflection {
     }
 
     private static Object invokeMethod(CajuScript cajuScript, Class<?> c, Object o, String name, Object[] values, String script, ScriptCommand scriptCommand) throws Exception {
-        if (scriptCommand.getMethod() != null) {
+        InlineCache cache = scriptCommand.getInlineCache();
+        MethodHandle handle = cache.find(o, values);
+        if (handle != null) {
+            Object r = InlineCache.invoke(handle, o, values);
+            if (r != InlineCache.FALLBACK) {
+                return r;
+            }
+        }
+        if (scriptCommand.getMethod() != null && cache.size() == InlineCache.LIMIT) {
             try {
                 Object r = scriptCommand.getMethod().invoke(o, getParams(cajuScript, values, scriptCommand.getMethod().getParameterTypes(), scriptCommand));
                 return r;
@@ -297,6 +341,9 @@ public class Reflection {
         if (name == null) {
             name = scriptCommand.getMethod().getName();
         }
+        if (o != null && !c.isInstance(o)) {
+            c = o.getClass();
+        }
         Class<?>[] classes = null;
         if (c.isMemberClass()) {
             Class<?>[] interfaces = c.getInterfaces();
@@ -326,6 +373,13 @@ public class Reflection {
                 }
                 if (foundMethod(cajuScript, values, cx, allowAutoPrimitiveCast, scriptCommand)) {
                     scriptCommand.setMethod(mt[x]);
+                    handle = cache.add(cajuScript, o, values, mt[x]);
+                    if (handle != null) {
+                        Object r = InlineCache.invoke(handle, o, values);
+                        if (r != InlineCache.FALLBACK) {
+                            return r;
+                        }
+                    }
                     return mt[x].invoke(o, getParams(cajuScript, values, cx, scriptCommand));
                 }
             }
@@ -347,6 +401,31 @@ public class Reflection {
         return invokeValues(cajuScript, context, syntax, script, scriptCommand, syntax.getFunctionCallParametersBegin(), syntax.getFunctionCallParametersSeparator(), syntax.getFunctionCallParametersEnd());
     }
 
+    /**
+     * Catch values of the arguments of a function of the script, read only
+     * one time from the parameters resolved by
+     * {@link #invokeFunctionValues}, without convert to objects.
+     * @param cajuScript CajuScript instance.
+     * @param context Context
+     * @param syntax Syntax
+     * @param script Parameters script
+     * @param scriptCommand ScriptCommand instance to save the procedure in cache
+     * @return Values of the arguments.
+     * @throws org.cajuscript.CajuScriptException Catching values exception
+     */
+    public static Value[] invokeFunctionArguments(CajuScript cajuScript, Context context, Syntax syntax, String script, ScriptCommand scriptCommand) throws CajuScriptException {
+        if (scriptCommand.getParams() == null) {
+            invokeFunctionValues(cajuScript, context, syntax, script, scriptCommand);
+        }
+        String[] params = scriptCommand.getParams();
+        Value[] values = new Value[params.length];
+        for (int x = 0; x < params.length; x++) {
+            Value value = context.getVar(params[x]);
+            values[x] = value != null ? value : cajuScript.getVar(params[x]);
+        }
+        return values;
+    }
+
     /**
      * Catch values from array syntax to be used into invocations.
      * @param cajuScript CajuScript instance.
@@ -49,6 +49,7 @@ public class ScriptCommand {
     private Constructor<?> constructor = null;
     private Method method = null;
     private ScriptCommand nextScriptCommand = null;
+    private InlineCache inlineCache = new InlineCache();
 
     /**
      * Create new script command with an script and type.
@@ -60,6 +61,14 @@ public class ScriptCommand {
         this.type = type;
     }
 
+    /**
+     * Get the cache of the methods and constructors invoked by this command.
+     * @return Inline cache.
+     */
+    public InlineCache getInlineCache() {
+        return inlineCache;
+    }
+
     /**
      * Get the script.
      * @return Script.
@@ -0,0 +1,123 @@
+/*
+ * CommandSite.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.compiler;
+
+import org.cajuscript.CajuScriptException;
+import org.cajuscript.Context;
+import org.cajuscript.Value;
+import org.cajuscript.cmd.ScriptCommand;
+
+/**
+ * Site of a command in a compiled script.
+ * <p>In the first execution the command is parsed and the result is linked
+ * to the site, literals keep the value and commands keep the
+ * {@link ScriptCommand} with the variable, function, method or constructor
+ * resolved. The next executions reuse the link, without parse the command
+ * again, and the Java invocations are dispatched by the inline cache of the
+ * script command. If the command is parsed again the site is relinked.</p>
+ * <p>The commands that are only a variable or a temporary value are loaded
+ * by the slot or the register resolved in the parse, like in the
+ * interpreter, the other commands are executed by the site. The site does
+ * not use method handles or invokedynamic, the functions are invoked by the
+ * index of the {@link FunctionDispatcher}.</p>
+ * <p>The link is kept in volatile fields, and the literal linked is never
+ * changed after linked, so a site is safe to be published to other threads.</p>
+ * @author eduveks
+ */
+public class CommandSite {
+    private final String command;
+    private volatile Value literal = null;
+    private volatile ScriptCommand scriptCommand = null;
+
+    /**
+     * Create new CommandSite.
+     * @param command Script of the command
+     */
+    public CommandSite(String command) {
+        this.command = command;
+    }
+
+    /**
+     * Get script of the command.
+     * @return Command
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Execute the command loading the result in the value.
+     * @param value Value of the command
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public void execute(Value value) throws CajuScriptException {
+        ScriptCommand linked = scriptCommand;
+        if (linked != null) {
+            value.setCommand(command, linked);
+        } else {
+            Value linkedLiteral = literal;
+            if (linkedLiteral == null) {
+                linkedLiteral = Value.literal(command, value.getSyntax());
+                literal = linkedLiteral;
+            }
+            if (linkedLiteral != null) {
+                value.copyValue(linkedLiteral);
+                return;
+            }
+            value.setCommand(command.trim());
+        }
+        scriptCommand = value.getScriptCommand();
+    }
+
+    /**
+     * Execute the command of a variable loading the variable by the slot,
+     * or executing the command when the variable is not in the context,
+     * like the variables of the root context.
+     * @param context Context
+     * @param slot Slot of the variable
+     * @param value Value of the command
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public void execute(Context context, int slot, Value value) throws CajuScriptException {
+        Value v = context.getVar(slot);
+        if (v != null) {
+            value.copyValue(v);
+        } else {
+            execute(value);
+        }
+    }
+
+    /**
+     * Execute the command of a temporary value loading the value by the
+     * register, or executing the command when the register is empty.
+     * @param context Context
+     * @param register Register of the temporary value
+     * @param value Value of the command
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public void executeRegister(Context context, int register, Value value) throws CajuScriptException {
+        Value v = context.getRegister(register);
+        if (v != null) {
+            value.copyValue(v);
+        } else {
+            execute(value);
+        }
+    }
+}
@@ -19,15 +19,17 @@
 package org.cajuscript.compiler;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.bcel.Constants;
 import org.apache.bcel.generic.AASTORE;
 import org.apache.bcel.generic.ACONST_NULL;
@@ -41,6 +43,7 @@ import org.apache.bcel.generic.ATHROW;
 import org.apache.bcel.generic.ArrayType;
 import org.apache.bcel.generic.BranchHandle;
 import org.apache.bcel.generic.DUP;
+import org.apache.bcel.generic.FieldGen;
 import org.apache.bcel.generic.GOTO;
 import org.apache.bcel.generic.ICONST;
 import org.apache.bcel.generic.IFEQ;
@@ -56,7 +59,10 @@ import org.apache.bcel.generic.InstructionList;
 import org.apache.bcel.generic.LocalVariableGen;
 import org.apache.bcel.generic.MethodGen;
 import org.apache.bcel.generic.ObjectType;
+import org.apache.bcel.generic.POP;
 import org.apache.bcel.generic.PUSH;
+import org.apache.bcel.generic.RETURN;
+import org.apache.bcel.generic.SWITCH;
 import org.apache.bcel.generic.Type;
 import org.cajuscript.CajuScript;
 import org.cajuscript.CajuScriptException;
@@ -76,6 +82,7 @@ import org.cajuscript.parser.LineDetail;
 import org.cajuscript.parser.Loop;
 import org.cajuscript.parser.Operation;
 import org.cajuscript.parser.Return;
+import org.cajuscript.parser.Scope;
 import org.cajuscript.parser.TryCatch;
 import org.cajuscript.parser.Variable;
 
@@ -84,18 +91,25 @@ import org.cajuscript.parser.Variable;
  * @author eduveks
  */
 public class Compiler {
-
+    /**
+     * Version of the classes generated, changed when the generated code
+     * changes, so the classes compiled by other versions are compiled again.
+     */
+    private static final int VERSION = 2;
     private File baseDir = null;
-    private static Map<String, Class> classes = new HashMap<String, Class>();
+    private static Map<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+    private static Map<String, Compiled> memoryClasses = new ConcurrentHashMap<String, Compiled>();
+    private boolean inMemory = false;
     private String packagePath = null;
     private String className = null;
     private File packageDir = null;
-    private File scriptFile = null;
     private File classFile = null;
     private CajuScript caju = null;
     private long varCount = 1;
     private Map<String, Integer> valuesIndexes = new HashMap<String, Integer>();
     private LineDetail lastLiteDetail = null;
+    private List<String> sites = new ArrayList<String>();
+    private Map<String, Scope> scopes = new LinkedHashMap<String, Scope>();
 
     /**
      * Compiler an script.
@@ -104,6 +118,7 @@ public class Compiler {
      */
     public Compiler(CajuScript cajuScript, String path) {
         this.caju = cajuScript;
+        this.inMemory = caju.isCompileInMemory();
         baseDir = new File(caju.getCompileBaseDirectory());
         if (path.lastIndexOf(".") > -1) {
             packagePath = path.substring(0, path.lastIndexOf("."));
@@ -114,7 +129,6 @@ public class Compiler {
             className = path;
             packageDir = baseDir;
         }
-        scriptFile = new File(packageDir.getAbsolutePath().concat(Character.toString(File.separatorChar)).concat(className).concat(".cj"));
         classFile = new File(packageDir.getAbsolutePath().concat(Character.toString(File.separatorChar)).concat(className).concat(".class"));
     }
 
@@ -127,21 +141,62 @@ public class Compiler {
      */
     public Value execute(Context context, Syntax syntax) throws CajuScriptException {
         try {
-            String path = packagePath.length() > 0 ? packagePath.concat(".").concat(className) : className;
-            if (classes.get(path) == null) {
-                loadClass(context);
+            String path = getPath();
+            Class<?> c;
+            if (inMemory) {
+                Compiled compiled = memoryClasses.get(path);
+                if (compiled == null) {
+                    throw CajuScriptException.create(caju, context, "Script \"".concat(path).concat("\" is not compiled."));
+                }
+                c = compiled.type;
+            } else {
+                if (classes.get(path) == null) {
+                    loadClass(context);
+                }
+                c = classes.get(path);
             }
-            return ((org.cajuscript.compiler.Executable) classes.get(path).newInstance()).execute(caju, context, syntax);
+            return ((org.cajuscript.compiler.Executable) c.getDeclaredConstructor().newInstance()).execute(caju, context, syntax);
+        } catch (CajuScriptException e) {
+            throw e;
         } catch (Exception e) {
             throw CajuScriptException.create(caju, context, e.getMessage(), e);
         }
     }
 
+    /**
+     * Remove the class compiled of the class path from the classes loaded,
+     * when is not more used the class can be unloaded.
+     * @param path Class path of the script compiled
+     */
+    public static void unload(String path) {
+        classes.remove(path);
+        memoryClasses.remove(path);
+    }
+
+    /**
+     * Load the manifest of the scripts compiled in the base directory, the
+     * file is mapped and read, to be called at the startup so the scripts
+     * compiled are checked without read the manifest.
+     * @param baseDirectory Base directory of the classes compiled
+     * @throws org.cajuscript.CajuScriptException Errors reading the manifest
+     */
+    public static void loadManifest(String baseDirectory) throws CajuScriptException {
+        try {
+            Manifest.get(new File(baseDirectory));
+        } catch (IOException e) {
+            throw new CajuScriptException(e);
+        }
+    }
+
+    private String getPath() {
+        return packagePath.length() > 0 ? packagePath.concat(".").concat(className) : className;
+    }
+
     private void loadClass(Context context) throws CajuScriptException {
         try {
-            String path = packagePath.length() > 0 ? packagePath.concat(".").concat(className) : className;
+            String path = getPath();
             URLClassLoader urlClassLoader = new URLClassLoader(new URL[]{baseDir.toURI().toURL()}, CajuScript.class.getClassLoader());
-            Executable parserExecute = (Executable) urlClassLoader.loadClass(path).newInstance();
+            Executable parserExecute = (Executable) urlClassLoader.loadClass(path).getDeclaredConstructor().newInstance();
             classes.put(path, parserExecute.getClass());
         } catch (Exception e) {
             throw CajuScriptException.create(caju, context, e.getMessage(), e);
@@ -155,27 +210,18 @@ public class Compiler {
      * @throws org.cajuscript.CajuScriptException Looking if is latest version exceptions.
      */
     public boolean isLatest(String script) throws CajuScriptException {
-        if (!scriptFile.exists() || !classFile.exists()) {
+        if (inMemory) {
+            Compiled compiled = memoryClasses.get(getPath());
+            return compiled != null && compiled.script.equals(script);
+        }
+        if (classes.get(getPath()) == null && !classFile.exists()) {
             return false;
         }
-        String scriptClass = "";
-        java.io.InputStream is = null;
         try {
-            is = new java.io.FileInputStream(scriptFile);
-            byte[] b = new byte[is.available()];
-            is.read(b);
-            scriptClass = new String(b);
-        } catch (Exception e) {
+            return Manifest.get(baseDir).isLatest(getPath(), VERSION, script);
+        } catch (IOException e) {
             throw new CajuScriptException(e);
-        } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (Exception e) {
-                }
-            }
         }
-        return scriptClass.equals(script);
     }
 
     /**
@@ -186,14 +232,16 @@ public class Compiler {
      * @throws org.cajuscript.CajuScriptException Compiling exceptions
      */
     public void compile(Context staticContext, String script, Element base) throws CajuScriptException {
-        packageDir.mkdirs();
+        if (!inMemory) {
+            packageDir.mkdirs();
+        }
         try {
-            ClassGen cg = new ClassGen(packagePath.length() > 0 ? packagePath.concat(".").concat(className) : className, "java.lang.Object",
+            ClassGen cg = new ClassGen(getPath(), "java.lang.Object",
                     "<generated>", Constants.ACC_PUBLIC | Constants.ACC_SUPER,
-                    new String[]{"org.cajuscript.compiler.Executable"});
+                    new String[]{"org.cajuscript.compiler.FunctionDispatcher"});
             ConstantPoolGen cp = cg.getConstantPool();
             InstructionList il = new InstructionList();
-            MethodGen mg = new MethodGen(Constants.ACC_PUBLIC,
+            MethodGen mg = new MethodGen(Constants.ACC_PRIVATE,
                     new ObjectType("org.cajuscript.Value"),
                     new Type[]{
                         new ObjectType("org.cajuscript.CajuScript"),
@@ -201,7 +249,7 @@ public class Compiler {
                         new ObjectType("org.cajuscript.Syntax")
                     },
                     new String[]{"caju", "context", "syntax"},
-                    "execute", "className",
+                    "script", "className",
                     il, cp);
             mg.addException("org.cajuscript.CajuScriptException");
             InstructionFactory factory = new InstructionFactory(cg);
@@ -224,8 +272,9 @@ public class Compiler {
             }
 
             int iFunc = 0;
+            List<String> funcNames = new ArrayList<String>();
             for (String key : caju.getContext().getFuncs().keySet()) {
-                Function function = (Function)caju.getContext().getFuncs().get(key);
+                Function function = caju.getContext().getFuncs().get(key);
                 String funcName = "f".concat(Integer.toString(iFunc)).concat("_").concat(function.getName());
                 InstructionList ilFunc = new InstructionList();
                 MethodGen mgFunc = new MethodGen(Constants.ACC_PUBLIC,
@@ -271,11 +320,14 @@ public class Compiler {
                 cg.addMethod(mgFunc.getMethod());
                 ilFunc.dispose();
 
+                String scopeField = "scope_".concat(funcName);
+                scopes.put(scopeField, function.getScope());
                 il.append(new ALOAD(2));
                 il.append(new PUSH(cp, function.getName()));
                 il.append(factoryFunc.createNew(new ObjectType("org.cajuscript.parser.Function")));
                 il.append(new DUP());
                 il.append(new ALOAD(0));
+                il.append(new PUSH(cp, iFunc));
                 il.append(new PUSH(cp, funcName));
                 il.append(new ICONST(function.getParameters().length));
                 il.append(new ANEWARRAY(cp.addClass(Type.STRING)));
@@ -285,19 +337,25 @@ public class Compiler {
                     il.append(new PUSH(cp, function.getParameters()[i]));
                     il.append(new AASTORE());
                 }
+                il.append(factory.createFieldAccess(cg.getClassName(), scopeField,
+                        new ObjectType("org.cajuscript.parser.Scope"), Constants.GETSTATIC));
                 il.append(factory.createInvoke("org.cajuscript.parser.Function", "<init>",
                         Type.VOID, new Type[] {
                             new ObjectType("org.cajuscript.compiler.Executable"),
+                            Type.INT,
                             Type.STRING,
-                            new ArrayType(Type.STRING, 1)
+                            new ArrayType(Type.STRING, 1),
+                            new ObjectType("org.cajuscript.parser.Scope")
                         },
                         Constants.INVOKESPECIAL));
                 il.append(factory.createInvoke("org.cajuscript.Context", "setFunc",
                     Type.VOID, new Type[] { Type.STRING, new ObjectType("org.cajuscript.parser.Function") },
                     Constants.INVOKEVIRTUAL));
                 valuesIndexes.clear();
+                funcNames.add(funcName);
                 iFunc++;
             }
+            addFunctionDispatcher(cg, cp, funcNames);
 
             List<String> valuesKeys = new ArrayList<String>();
 
@@ -335,27 +393,201 @@ public class Compiler {
             mg.setMaxStack();
             cg.addMethod(mg.getMethod());
             il.dispose();
-            cg.addEmptyConstructor(Constants.ACC_PUBLIC);
-            cg.getJavaClass().dump(new File(classFile.getAbsolutePath().replace(".class", ".class")));
+            scopes.put("scope", base instanceof Base ? ((Base) base).getScope() : null);
+            addExecute(cg, cp);
+            addStaticInitializer(cg, cp);
+            addConstructor(cg, cp);
+            if (inMemory) {
+                byte[] bytes = cg.getJavaClass().getBytes();
+                memoryClasses.put(getPath(), new Compiled(script, new Loader().define(getPath(), bytes)));
+                return;
+            }
+            File tempFile = File.createTempFile(className.concat(".class."), ".tmp", packageDir);
+            try {
+                cg.getJavaClass().dump(tempFile);
+                Files.move(tempFile.toPath(), classFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                tempFile.delete();
+            }
+            Manifest.get(baseDir).put(getPath(), VERSION, script);
         } catch (IOException ex) {
             throw new CajuScriptException(ex);
         }
-        Writer fwScript = null;
-        try {
-            fwScript = new FileWriter(scriptFile);
-            fwScript.append(script);
-        } catch (IOException ex) {
-            throw new CajuScriptException(ex);
-        } finally {
-            if (fwScript != null) {
-                try {
-                    fwScript.close();
-                } catch (IOException ex) {
-                    throw new CajuScriptException(ex);
-                }
+        loadClass(staticContext);
+    }
+
+    /**
+     * Method to invoke the functions by index, with a switch to the method of
+     * each function.
+     */
+    private void addFunctionDispatcher(ClassGen cg, ConstantPoolGen cp, List<String> funcNames) {
+        ObjectType valueType = new ObjectType("org.cajuscript.Value");
+        Type[] funcTypes = new Type[] {
+            new ObjectType("org.cajuscript.CajuScript"),
+            new ObjectType("org.cajuscript.Context"),
+            new ObjectType("org.cajuscript.Syntax")
+        };
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_PUBLIC, valueType,
+                new Type[] { Type.INT, funcTypes[0], funcTypes[1], funcTypes[2] },
+                new String[] { "index", "caju", "context", "syntax" },
+                "invokeFunction", cg.getClassName(), il, cp);
+        mg.addException("org.cajuscript.CajuScriptException");
+        InstructionFactory factory = new InstructionFactory(cg);
+        int[] match = new int[funcNames.size()];
+        InstructionHandle[] targets = new InstructionHandle[funcNames.size()];
+        InstructionList cases = new InstructionList();
+        for (int i = 0; i < match.length; i++) {
+            match[i] = i;
+            targets[i] = cases.append(new ALOAD(0));
+            cases.append(new ALOAD(2));
+            cases.append(new ALOAD(3));
+            cases.append(new ALOAD(4));
+            cases.append(factory.createInvoke(cg.getClassName(), funcNames.get(i), valueType, funcTypes,
+                    Constants.INVOKEVIRTUAL));
+            cases.append(new ARETURN());
+        }
+        InstructionHandle notFound = cases.append(new ACONST_NULL());
+        cases.append(new ARETURN());
+        if (match.length > 0) {
+            il.append(new ILOAD(1));
+            il.append(new SWITCH(match, targets, notFound));
+        }
+        il.append(cases);
+        mg.setMaxStack();
+        mg.setMaxLocals();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
+    }
+
+    /**
+     * Method to execute the script, binds the scope of the script to the
+     * context, so the variables are loaded by the slots of the parse.
+     */
+    private void addExecute(ClassGen cg, ConstantPoolGen cp) {
+        ObjectType valueType = new ObjectType("org.cajuscript.Value");
+        ObjectType scopeType = new ObjectType("org.cajuscript.parser.Scope");
+        Type[] types = new Type[] {
+            new ObjectType("org.cajuscript.CajuScript"),
+            new ObjectType("org.cajuscript.Context"),
+            new ObjectType("org.cajuscript.Syntax")
+        };
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_PUBLIC, valueType, types,
+                new String[] { "caju", "context", "syntax" },
+                "execute", cg.getClassName(), il, cp);
+        mg.addException("org.cajuscript.CajuScriptException");
+        InstructionFactory factory = new InstructionFactory(cg);
+        int previous = mg.addLocalVariable("previous", scopeType, null, null).getIndex();
+        int result = mg.addLocalVariable("result", valueType, null, null).getIndex();
+        int error = mg.addLocalVariable("error", new ObjectType("java.lang.Throwable"), null, null).getIndex();
+        il.append(new ALOAD(2));
+        il.append(factory.createFieldAccess(cg.getClassName(), "scope", scopeType, Constants.GETSTATIC));
+        il.append(factory.createInvoke("org.cajuscript.Context", "bind", scopeType,
+                new Type[] { scopeType }, Constants.INVOKEVIRTUAL));
+        il.append(new ASTORE(previous));
+        InstructionHandle start = il.append(new ALOAD(0));
+        il.append(new ALOAD(1));
+        il.append(new ALOAD(2));
+        il.append(new ALOAD(3));
+        il.append(factory.createInvoke(cg.getClassName(), "script", valueType, types,
+                Constants.INVOKESPECIAL));
+        InstructionHandle end = il.append(new ASTORE(result));
+        il.append(new ALOAD(2));
+        il.append(new ALOAD(previous));
+        il.append(factory.createInvoke("org.cajuscript.Context", "bind", scopeType,
+                new Type[] { scopeType }, Constants.INVOKEVIRTUAL));
+        il.append(new POP());
+        il.append(new ALOAD(result));
+        il.append(new ARETURN());
+        InstructionHandle handler = il.append(new ASTORE(error));
+        il.append(new ALOAD(2));
+        il.append(new ALOAD(previous));
+        il.append(factory.createInvoke("org.cajuscript.Context", "bind", scopeType,
+                new Type[] { scopeType }, Constants.INVOKEVIRTUAL));
+        il.append(new POP());
+        il.append(new ALOAD(error));
+        il.append(new ATHROW());
+        mg.addExceptionHandler(start, end, handler, null);
+        mg.setMaxStack();
+        mg.setMaxLocals();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
+    }
+
+    /**
+     * Static fields with the scopes of the script and of the functions,
+     * with the variables and the temporary values in the order of the index.
+     */
+    private void addStaticInitializer(ClassGen cg, ConstantPoolGen cp) {
+        ObjectType scopeType = new ObjectType("org.cajuscript.parser.Scope");
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_STATIC, Type.VOID, Type.NO_ARGS, null,
+                "<clinit>", cg.getClassName(), il, cp);
+        InstructionFactory factory = new InstructionFactory(cg);
+        for (Map.Entry<String, Scope> scope : scopes.entrySet()) {
+            Scope s = scope.getValue();
+            String[] names = new String[s == null ? 0 : s.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = s.getName(i);
+            }
+            String[] registers = new String[s == null ? 0 : s.registers()];
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = s.getRegisterName(i);
             }
+            cg.addField(new FieldGen(Constants.ACC_PRIVATE | Constants.ACC_STATIC | Constants.ACC_FINAL,
+                    scopeType, scope.getKey(), cp).getField());
+            il.append(factory.createNew(scopeType));
+            il.append(new DUP());
+            addStrings(cp, il, names);
+            addStrings(cp, il, registers);
+            il.append(factory.createInvoke("org.cajuscript.parser.Scope", "<init>",
+                    Type.VOID, new Type[] { new ArrayType(Type.STRING, 1), new ArrayType(Type.STRING, 1) },
+                    Constants.INVOKESPECIAL));
+            il.append(factory.createFieldAccess(cg.getClassName(), scope.getKey(), scopeType, Constants.PUTSTATIC));
         }
-        loadClass(staticContext);
+        il.append(new RETURN());
+        mg.setMaxStack();
+        mg.setMaxLocals();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
+    }
+
+    private void addStrings(ConstantPoolGen cp, InstructionList il, String[] strings) {
+        il.append(new PUSH(cp, strings.length));
+        il.append(new ANEWARRAY(cp.addClass(Type.STRING)));
+        for (int i = 0; i < strings.length; i++) {
+            il.append(new DUP());
+            il.append(new PUSH(cp, i));
+            il.append(new PUSH(cp, strings[i]));
+            il.append(new AASTORE());
+        }
+    }
+
+    private void addConstructor(ClassGen cg, ConstantPoolGen cp) {
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_PUBLIC, Type.VOID, Type.NO_ARGS, null,
+                "<init>", cg.getClassName(), il, cp);
+        InstructionFactory factory = new InstructionFactory(cg);
+        ObjectType siteType = new ObjectType("org.cajuscript.compiler.CommandSite");
+        il.append(new ALOAD(0));
+        il.append(factory.createInvoke("java.lang.Object", "<init>", Type.VOID, Type.NO_ARGS,
+                Constants.INVOKESPECIAL));
+        for (int i = 0; i < sites.size(); i++) {
+            String site = "s".concat(Integer.toString(i));
+            cg.addField(new FieldGen(Constants.ACC_PRIVATE, siteType, site, cp).getField());
+            il.append(new ALOAD(0));
+            il.append(factory.createNew(siteType));
+            il.append(new DUP());
+            il.append(new PUSH(cp, sites.get(i)));
+            il.append(factory.createInvoke("org.cajuscript.compiler.CommandSite", "<init>",
+                    Type.VOID, new Type[] { Type.STRING }, Constants.INVOKESPECIAL));
+            il.append(factory.createFieldAccess(cg.getClassName(), site, siteType, Constants.PUTFIELD));
+        }
+        il.append(new RETURN());
+        mg.setMaxStack();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
     }
 
     private String compileElement(ClassGen cg, ConstantPoolGen cp, InstructionList il, MethodGen mg, InstructionFactory factory, List<String> valueKeys, Element element, int level, boolean onlyValues, Map<String, GOTO> gotosContinue, Map<String, GOTO> gotosBreak) {
@@ -374,11 +606,25 @@ public class Compiler {
             key = "c".concat(Integer.toString(level)).concat("_").concat(Long.toString(varCount++));
             if (!onlyValues) {
                 Command command = (Command) element;
-                il.append(new ALOAD(valuesIndexes.get(key)));
-                il.append(new PUSH(cp, command.getCommand()));
-                il.append(factory.createInvoke("org.cajuscript.Value", "setScript",
-                        Type.VOID, new Type[] { Type.STRING },
-                        Constants.INVOKEVIRTUAL));
+                String site = "s".concat(Integer.toString(sites.size()));
+                sites.add(command.getCommand());
+                il.append(new ALOAD(0));
+                il.append(factory.createFieldAccess(cg.getClassName(), site,
+                        new ObjectType("org.cajuscript.compiler.CommandSite"), Constants.GETFIELD));
+                if (command.getSlot() > -1 || command.getRegister() > -1) {
+                    il.append(new ALOAD(2));
+                    il.append(new PUSH(cp, command.getSlot() > -1 ? command.getSlot() : command.getRegister()));
+                    il.append(new ALOAD(valuesIndexes.get(key)));
+                    il.append(factory.createInvoke("org.cajuscript.compiler.CommandSite",
+                            command.getSlot() > -1 ? "execute" : "executeRegister",
+                            Type.VOID, new Type[] { new ObjectType("org.cajuscript.Context"), Type.INT, new ObjectType("org.cajuscript.Value") },
+                            Constants.INVOKEVIRTUAL));
+                } else {
+                    il.append(new ALOAD(valuesIndexes.get(key)));
+                    il.append(factory.createInvoke("org.cajuscript.compiler.CommandSite", "execute",
+                            Type.VOID, new Type[] { new ObjectType("org.cajuscript.Value") },
+                            Constants.INVOKEVIRTUAL));
+                }
             }
         } else if (element instanceof Variable) {
             lineDetail(cp, il, mg, factory, element.getLineDetail(), onlyValues);
@@ -389,12 +635,21 @@ public class Compiler {
                 addKey = false;
                 key = keyValue;
             } else if (!onlyValues) {
-                if (variable.isKeyRootContext(caju.getSyntax())) {
+                boolean isRootContext = variable.isKeyRootContext(caju.getSyntax());
+                boolean isSlot = !isRootContext && variable.getSlot() > -1;
+                boolean isRegister = !isRootContext && !isSlot && variable.getRegister() > -1;
+                if (isRootContext) {
                     il.append(new ALOAD(1));
                     il.append(new PUSH(cp, variable.getKeyRootContext(caju.getSyntax())));
                 } else {
                     il.append(new ALOAD(2));
-                    il.append(new PUSH(cp, variable.getKey()));
+                    if (isSlot) {
+                        il.append(new PUSH(cp, variable.getSlot()));
+                    } else if (isRegister) {
+                        il.append(new PUSH(cp, variable.getRegister()));
+                    } else {
+                        il.append(new PUSH(cp, variable.getKey()));
+                    }
                 }
                 if (keyValue == null || keyValue.equals("")) {
                     il.append(InstructionConstants.ACONST_NULL);
@@ -405,9 +660,32 @@ public class Compiler {
                             Constants.INVOKEVIRTUAL));
                 }
                 il.append(factory.createInvoke(
-                        variable.isKeyRootContext(caju.getSyntax()) ? "org.cajuscript.CajuScript" : "org.cajuscript.Context",
-                        "setVar", Type.VOID, new Type[] { Type.STRING, new ObjectType("org.cajuscript.Value") },
+                        isRootContext ? "org.cajuscript.CajuScript" : "org.cajuscript.Context",
+                        isRegister ? "setRegister" : "setVar", Type.VOID,
+                        new Type[] { isSlot || isRegister ? Type.INT : Type.STRING, new ObjectType("org.cajuscript.Value") },
+                        Constants.INVOKEVIRTUAL));
+            }
+        } else if (element instanceof Operation
+                && (((Operation) element).getOperator() == Operation.Operator.AND
+                    || ((Operation) element).getOperator() == Operation.Operator.OR)) {
+            lineDetail(cp, il, mg, factory, element.getLineDetail(), onlyValues);
+            key = "o".concat(Integer.toString(level)).concat("_").concat(Long.toString(varCount++));
+            Operation operation = (Operation) element;
+            String firstCommand = compileElement(cg, cp, il, mg, factory, valueKeys, operation.getFirstCommand(), nextLevel, onlyValues, gotosContinue, gotosBreak);
+            BranchHandle decided = null;
+            if (!onlyValues) {
+                compileBoolean(il, factory, key, firstCommand);
+                il.append(new ALOAD(valuesIndexes.get(key)));
+                il.append(factory.createInvoke("org.cajuscript.Value", "getBooleanValue",
+                        Type.BOOLEAN, new Type[] { },
                         Constants.INVOKEVIRTUAL));
+                decided = il.append(operation.getOperator() == Operation.Operator.OR ? new IFNE(null) : new IFEQ(null));
+            }
+            compileElements(cg, cp, il, mg, factory, valueKeys, element, nextLevel, onlyValues, gotosContinue, gotosBreak);
+            String secondCommand = compileElement(cg, cp, il, mg, factory, valueKeys, operation.getSecondCommand(), nextLevel, onlyValues, gotosContinue, gotosBreak);
+            if (!onlyValues) {
+                compileBoolean(il, factory, key, secondCommand);
+                decided.setTarget(il.append(InstructionConstants.NOP));
             }
         } else if (element instanceof Operation) {
             lineDetail(cp, il, mg, factory, element.getLineDetail(), onlyValues);
@@ -700,6 +978,21 @@ public class Compiler {
         return compileElements(cg, cp, il, mg, factory, valueKeys, elements, level, onlyValues, new HashMap<String, GOTO>(), new HashMap<String, GOTO>());
     }
 
+    /**
+     * Write in the value of the logical operation the boolean of a command,
+     * the logical operations are short circuit like in the interpreter.
+     */
+    private void compileBoolean(InstructionList il, InstructionFactory factory, String key, String commandKey) {
+        il.append(new ALOAD(valuesIndexes.get(key)));
+        il.append(new ALOAD(valuesIndexes.get(commandKey)));
+        il.append(factory.createInvoke("org.cajuscript.Value", "getBooleanValue",
+                Type.BOOLEAN, new Type[] { },
+                Constants.INVOKEVIRTUAL));
+        il.append(factory.createInvoke("org.cajuscript.Value", "setBoolean",
+                Type.VOID, new Type[] { Type.BOOLEAN },
+                Constants.INVOKEVIRTUAL));
+    }
+
     private void lineDetail(ConstantPoolGen cp, InstructionList il, MethodGen mg, InstructionFactory factory, LineDetail lineDetail, boolean onlyValues) {
         if (lastLiteDetail != null
                 && lastLiteDetail.getNumber() == lineDetail.getNumber()
@@ -720,4 +1013,30 @@ public class Compiler {
                     Constants.INVOKEVIRTUAL));
         }
     }
+
+    /**
+     * Class compiled in memory and the script compiled.
+     */
+    private static final class Compiled {
+        private final String script;
+        private final Class<?> type;
+
+        private Compiled(String script, Class<?> type) {
+            this.script = script;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Class loader of only one class compiled in memory.
+     */
+    private static final class Loader extends ClassLoader {
+        private Loader() {
+            super(CajuScript.class.getClassLoader());
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
 }
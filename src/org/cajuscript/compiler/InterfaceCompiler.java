@@ -0,0 +1,273 @@
+/*
+ * InterfaceCompiler.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.compiler;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.AASTORE;
+import org.apache.bcel.generic.ALOAD;
+import org.apache.bcel.generic.ArrayType;
+import org.apache.bcel.generic.ClassGen;
+import org.apache.bcel.generic.ConstantPoolGen;
+import org.apache.bcel.generic.DUP;
+import org.apache.bcel.generic.I2B;
+import org.apache.bcel.generic.I2S;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.MethodGen;
+import org.apache.bcel.generic.ObjectType;
+import org.apache.bcel.generic.POP;
+import org.apache.bcel.generic.PUSH;
+import org.apache.bcel.generic.RETURN;
+import org.apache.bcel.generic.Type;
+import org.cajuscript.CajuScriptEngine;
+import org.cajuscript.CajuScriptException;
+
+/**
+ * Generate classes to implement interfaces with functions of the script.
+ * <p>Is generated one class by interface, extending
+ * {@link org.cajuscript.InterfaceImplementation}, and each method of the
+ * interface invokes directly the function with the same name, so the
+ * invocation does not need proxy, reflection or boxing of the primitive
+ * arguments. The code generated does not depend on the script, so the
+ * class is shared and each instance is bound to the functions of its script
+ * when is created, an implementation by pair of script and interface
+ * without a class by script.</p>
+ * <p>Interfaces that are not public, or with methods using types that are
+ * not public, cannot be implemented by a class in other package and are not
+ * supported.</p>
+ * @author eduveks
+ */
+public class InterfaceCompiler {
+    private static final String BASE = "org.cajuscript.InterfaceImplementation";
+    private static final ObjectType VALUE = new ObjectType("org.cajuscript.Value");
+    private static final AtomicInteger counter = new AtomicInteger();
+    private static final ClassValue<Implementation> implementations = new ClassValue<Implementation>() {
+        @Override
+        protected Implementation computeValue(Class<?> iface) {
+            return compile(iface);
+        }
+    };
+
+    private InterfaceCompiler() {
+
+    }
+
+    /**
+     * Create an implementation of the interface.
+     * @param engine Engine with the functions
+     * @param thiz Object with the methods to invoke, or null to invoke the functions
+     * @param iface Interface to be implemented
+     * @return Implementation or null if the interface is not supported
+     * @throws org.cajuscript.CajuScriptException Errors creating the implementation
+     */
+    public static <T> T implement(CajuScriptEngine engine, Object thiz, Class<T> iface) throws CajuScriptException {
+        Implementation implementation = implementations.get(iface);
+        if (implementation == null) {
+            return null;
+        }
+        try {
+            return iface.cast(implementation.constructor.newInstance(engine, thiz, implementation.names));
+        } catch (Exception e) {
+            throw new CajuScriptException(e);
+        }
+    }
+
+    private static Implementation compile(Class<?> iface) {
+        if (!iface.isInterface() || !Modifier.isPublic(iface.getModifiers())) {
+            return null;
+        }
+        List<Method> methods = new ArrayList<Method>();
+        Set<String> signatures = new HashSet<String>();
+        for (Method method : iface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (!isPublic(method.getReturnType())) {
+                return null;
+            }
+            for (Class<?> p : method.getParameterTypes()) {
+                if (!isPublic(p)) {
+                    return null;
+                }
+            }
+            if (signatures.add(method.getName().concat(Type.getSignature(method)))) {
+                methods.add(method);
+            }
+        }
+        String className = "org.cajuscript.compiler.generated.".concat(iface.getSimpleName())
+                .concat("Implementation").concat(Integer.toString(counter.incrementAndGet()));
+        ClassGen cg = new ClassGen(className, BASE, "<generated>", Constants.ACC_PUBLIC | Constants.ACC_SUPER,
+                new String[]{iface.getName()});
+        ConstantPoolGen cp = cg.getConstantPool();
+        InstructionFactory factory = new InstructionFactory(cg);
+        Type[] constructorTypes = new Type[]{
+            new ObjectType("org.cajuscript.CajuScriptEngine"),
+            Type.OBJECT,
+            new ArrayType(Type.STRING, 1)
+        };
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_PUBLIC, Type.VOID, constructorTypes,
+                new String[]{"engine", "thiz", "names"}, "<init>", className, il, cp);
+        il.append(new ALOAD(0));
+        il.append(new ALOAD(1));
+        il.append(new ALOAD(2));
+        il.append(new ALOAD(3));
+        il.append(factory.createInvoke(BASE, "<init>", Type.VOID, constructorTypes, Constants.INVOKESPECIAL));
+        il.append(new RETURN());
+        mg.setMaxStack();
+        mg.setMaxLocals();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
+        String[] names = new String[methods.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = methods.get(i).getName();
+            addMethod(cg, cp, factory, i, methods.get(i));
+        }
+        try {
+            Class<?> c = new Loader(iface.getClassLoader()).define(className, cg.getJavaClass().getBytes());
+            return new Implementation(c.getConstructor(CajuScriptEngine.class, Object.class, String[].class), names);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void addMethod(ClassGen cg, ConstantPoolGen cp, InstructionFactory factory, int index, Method method) {
+        Class<?>[] params = method.getParameterTypes();
+        Class<?> returnType = method.getReturnType();
+        InstructionList il = new InstructionList();
+        MethodGen mg = new MethodGen(Constants.ACC_PUBLIC, Type.getType(returnType), Type.getTypes(params),
+                null, method.getName(), cg.getClassName(), il, cp);
+        il.append(new ALOAD(0));
+        il.append(new PUSH(cp, index));
+        il.append(new PUSH(cp, params.length));
+        il.append(factory.createNewArray(VALUE, (short) 1));
+        int local = 1;
+        for (int i = 0; i < params.length; i++) {
+            Type type = Type.getType(params[i]);
+            il.append(new DUP());
+            il.append(new PUSH(cp, i));
+            il.append(new ALOAD(0));
+            il.append(InstructionFactory.createLoad(type, local));
+            local += type.getSize();
+            Type valueType;
+            if (params[i] == int.class || params[i] == short.class || params[i] == byte.class) {
+                valueType = Type.INT;
+            } else if (params[i] == long.class || params[i] == float.class
+                    || params[i] == double.class || params[i] == boolean.class) {
+                valueType = type;
+            } else if (params[i] == char.class) {
+                il.append(factory.createInvoke("java.lang.Character", "valueOf", new ObjectType("java.lang.Character"),
+                        new Type[]{Type.CHAR}, Constants.INVOKESTATIC));
+                valueType = Type.OBJECT;
+            } else {
+                valueType = Type.OBJECT;
+            }
+            il.append(factory.createInvoke(BASE, "value", VALUE, new Type[]{valueType}, Constants.INVOKEVIRTUAL));
+            il.append(new AASTORE());
+        }
+        il.append(factory.createInvoke(BASE, "invoke", VALUE, new Type[]{Type.INT, new ArrayType(VALUE, 1)},
+                Constants.INVOKEVIRTUAL));
+        if (returnType == void.class) {
+            il.append(new POP());
+        } else if (returnType == boolean.class) {
+            il.append(factory.createInvoke(VALUE.getClassName(), "getBooleanValue", Type.BOOLEAN, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+        } else if (returnType == int.class || returnType == short.class || returnType == byte.class) {
+            il.append(factory.createInvoke(BASE, "toInt", Type.INT, new Type[]{VALUE}, Constants.INVOKESTATIC));
+            if (returnType == short.class) {
+                il.append(new I2S());
+            } else if (returnType == byte.class) {
+                il.append(new I2B());
+            }
+        } else if (returnType == char.class) {
+            il.append(factory.createInvoke(BASE, "toChar", Type.CHAR, new Type[]{VALUE}, Constants.INVOKESTATIC));
+        } else if (returnType == long.class) {
+            il.append(factory.createInvoke(BASE, "toLong", Type.LONG, new Type[]{VALUE}, Constants.INVOKESTATIC));
+        } else if (returnType == float.class) {
+            il.append(factory.createInvoke(BASE, "toFloat", Type.FLOAT, new Type[]{VALUE}, Constants.INVOKESTATIC));
+        } else if (returnType == double.class) {
+            il.append(factory.createInvoke(BASE, "toDouble", Type.DOUBLE, new Type[]{VALUE}, Constants.INVOKESTATIC));
+        } else {
+            il.append(factory.createInvoke(VALUE.getClassName(), "getValue", Type.OBJECT, Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+            if (returnType != Object.class) {
+                il.append(factory.createCheckCast((org.apache.bcel.generic.ReferenceType) Type.getType(returnType)));
+            }
+        }
+        il.append(InstructionFactory.createReturn(Type.getType(returnType)));
+        mg.setMaxStack();
+        mg.setMaxLocals();
+        cg.addMethod(mg.getMethod());
+        il.dispose();
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isPublic(Class<?> c) {
+        while (c.isArray()) {
+            c = c.getComponentType();
+        }
+        return c.isPrimitive() || Modifier.isPublic(c.getModifiers());
+    }
+
+    private static final class Implementation {
+        private final Constructor<?> constructor;
+        private final String[] names;
+
+        private Implementation(Constructor<?> constructor, String[] names) {
+            this.constructor = constructor;
+            this.names = names;
+        }
+    }
+
+    private static final class Loader extends ClassLoader {
+        private final ClassLoader interfaceLoader;
+
+        private Loader(ClassLoader interfaceLoader) {
+            super(InterfaceCompiler.class.getClassLoader());
+            this.interfaceLoader = interfaceLoader;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (interfaceLoader == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return interfaceLoader.loadClass(name);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Manifest.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cajuscript.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the scripts compiled in a base directory.
+ * <p>The file of the manifest has a record by class compiled, with the class
+ * path, the version of the compiler that generated the class and the SHA-256
+ * hash of the script. The file is mapped in memory and read when the
+ * manifest is loaded, so to know if a class is the latest version is a
+ * lookup of the class path and a compare of the hash, without read the
+ * scripts.</p>
+ * <p>The writers use the lock file of the manifest, so many processes can
+ * compile in the same base directory. A new class is appended to the file,
+ * and a class compiled again or a file with old records is rewritten with
+ * only the latest record by class, in a temporary file moved atomically.
+ * Each file written has a new generation in the header, so the readers know
+ * when the file was rewritten by other process and read it again.</p>
+ * @author eduveks
+ */
+class Manifest {
+    /**
+     * Name of the file of the manifest in the base directory.
+     */
+    static final String FILE_NAME = "manifest.cjm";
+    private static final String LOCK_NAME = "manifest.cjm.lock";
+    private static final int MAGIC = 0x434A4D32;
+    private static final int HEADER_LENGTH = 4 + 8;
+    private static final int HASH_LENGTH = 32;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final ConcurrentHashMap<String, Manifest> manifests = new ConcurrentHashMap<String, Manifest>();
+    private final File file;
+    private final Map<String, Record> records = new ConcurrentHashMap<String, Record>();
+    private long position = 0;
+    private long generation = 0;
+    private int duplicates = 0;
+
+    private Manifest(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the manifest of the base directory, the file is mapped and read
+     * when the manifest is loaded for the first time.
+     * @param baseDir Base directory
+     * @return Manifest
+     * @throws java.io.IOException Errors reading the manifest
+     */
+    static Manifest get(File baseDir) throws IOException {
+        String key = baseDir.getAbsolutePath();
+        Manifest manifest = manifests.get(key);
+        if (manifest == null) {
+            Manifest created = new Manifest(new File(baseDir, FILE_NAME));
+            manifest = manifests.putIfAbsent(key, created);
+            if (manifest == null) {
+                manifest = created;
+                manifest.load();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * The class compiled is of the script and of the version of the compiler.
+     * @param path Class path
+     * @param version Version of the compiler
+     * @param script Script
+     * @return Is latest version
+     * @throws java.io.IOException Errors reading the manifest
+     */
+    boolean isLatest(String path, int version, String script) throws IOException {
+        Record record = records.get(path);
+        if (record != null && record.matches(version, script)) {
+            return true;
+        }
+        refresh();
+        record = records.get(path);
+        return record != null && record.matches(version, script);
+    }
+
+    /**
+     * Add the record of a class compiled, the file is rewritten when has an
+     * older record of the class.
+     * @param path Class path
+     * @param version Version of the compiler
+     * @param script Script
+     * @throws java.io.IOException Errors writing the manifest
+     */
+    synchronized void put(String path, int version, String script) throws IOException {
+        Record record = new Record(version, hash(script), script);
+        RandomAccessFile lockFile = new RandomAccessFile(new File(file.getParentFile(), LOCK_NAME), "rw");
+        try {
+            FileLock lock = lockFile.getChannel().lock();
+            try {
+                refresh();
+                boolean older = records.containsKey(path);
+                records.put(path, record);
+                if (position == 0 || older || duplicates > 0) {
+                    rewrite();
+                } else {
+                    append(path, record);
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            lockFile.close();
+        }
+    }
+
+    /**
+     * Read the file and compact it when has old records.
+     */
+    private synchronized void load() throws IOException {
+        refresh();
+        if (duplicates == 0) {
+            return;
+        }
+        RandomAccessFile lockFile = new RandomAccessFile(new File(file.getParentFile(), LOCK_NAME), "rw");
+        try {
+            FileLock lock = lockFile.getChannel().lock();
+            try {
+                refresh();
+                if (duplicates > 0) {
+                    rewrite();
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            lockFile.close();
+        }
+    }
+
+    /**
+     * Read the records appended after the last read, or all the records when
+     * the file was rewritten.
+     */
+    private synchronized void refresh() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            read(raf.getChannel());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Read the records from the position, stops in a record incomplete or
+     * in a file that is not a manifest.
+     */
+    private void read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (position > 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC || header.getLong() != generation) {
+                records.clear();
+                position = 0;
+                duplicates = 0;
+            }
+        }
+        if (size <= position) {
+            return;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size - position);
+        long start = position;
+        if (position == 0) {
+            if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+                return;
+            }
+            generation = buffer.getLong();
+            position = HEADER_LENGTH;
+        }
+        while (buffer.remaining() >= 2) {
+            int length = buffer.getShort() & 0xFFFF;
+            if (buffer.remaining() < length + 4 + HASH_LENGTH) {
+                break;
+            }
+            byte[] name = new byte[length];
+            buffer.get(name);
+            int version = buffer.getInt();
+            byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            if (records.put(new String(name, UTF8), new Record(version, hash, null)) != null) {
+                duplicates++;
+            }
+            position = start + buffer.position();
+        }
+    }
+
+    /**
+     * Append a record to the file, removing a record incomplete in the end.
+     */
+    private void append(String path, Record record) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > position) {
+                channel.truncate(position);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length(path));
+            write(buffer, path, record);
+            buffer.flip();
+            channel.position(position);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            position = channel.position();
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Write a new file with the latest record of each class, and move it to
+     * the file of the manifest.
+     */
+    private void rewrite() throws IOException {
+        int length = HEADER_LENGTH;
+        for (String path : records.keySet()) {
+            length += length(path);
+        }
+        long newGeneration = UUID.randomUUID().getMostSignificantBits();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putLong(newGeneration);
+        for (Map.Entry<String, Record> entry : records.entrySet()) {
+            write(buffer, entry.getKey(), entry.getValue());
+        }
+        buffer.flip();
+        File tempFile = File.createTempFile("manifest", ".tmp", file.getParentFile());
+        try {
+            RandomAccessFile raf = new RandomAccessFile(tempFile, "rw");
+            try {
+                FileChannel channel = raf.getChannel();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            } finally {
+                raf.close();
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tempFile.delete();
+        }
+        generation = newGeneration;
+        position = length;
+        duplicates = 0;
+    }
+
+    private static int length(String path) {
+        return 2 + path.getBytes(UTF8).length + 4 + HASH_LENGTH;
+    }
+
+    private static void write(ByteBuffer buffer, String path, Record record) {
+        byte[] name = path.getBytes(UTF8);
+        buffer.putShort((short) name.length).put(name).putInt(record.version).put(record.hash);
+    }
+
+    private static byte[] hash(String script) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(script.getBytes(UTF8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Record of a class compiled, keeps the last script verified so the same
+     * script is not hashed again.
+     */
+    private static final class Record {
+        private final int version;
+        private final byte[] hash;
+        private volatile String script;
+
+        private Record(int version, byte[] hash, String script) {
+            this.version = version;
+            this.hash = hash;
+            this.script = script;
+        }
+
+        private boolean matches(int version, String script) {
+            if (this.version != version) {
+                return false;
+            }
+            String verified = this.script;
+            if (verified != null) {
+                return verified.equals(script);
+            }
+            if (Arrays.equals(hash, hash(script))) {
+                this.script = script;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -20,7 +20,11 @@
 package org.cajuscript.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 import org.cajuscript.CajuScript;
 import org.cajuscript.Context;
@@ -33,6 +37,9 @@ import org.cajuscript.parser.Operation.Operator;
 
 /**
  * Base to do script parse.
+ * <p>After the parse the tree of elements is not changed by the execution,
+ * the state of each execution is kept in the context frame, so the same
+ * tree can be shared and executed at the same time by many threads.</p>
  * @author eduveks
  */
 public class Base implements Element, java.io.Serializable, Cloneable {
@@ -41,6 +48,8 @@ public class Base implements Element, java.io.Serializable, Cloneable {
     private static long varsGroupCounter = 0;
     private static long varsMathCounter = 0;
     protected Executable executable = null;
+    protected Scope scope = null;
+    private transient Map<String, Value> constants = null;
     
     /**
      * Base
@@ -90,6 +99,14 @@ public class Base implements Element, java.io.Serializable, Cloneable {
         return baseLineDetail;
     }
     
+    /**
+     * Get scope of the variables, resolved after the parse.
+     * @return Scope or null if was not resolved
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
     /**
      * If element can return value.
      * @param element Element
@@ -112,6 +129,30 @@ public class Base implements Element, java.io.Serializable, Cloneable {
      */
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         caju.setRunningLine(getLineDetail());
+        if (scope == null) {
+            return executeElements(caju, context, syntax);
+        }
+        Scope previous = context.bind(scope);
+        try {
+            return executeElements(caju, context, syntax);
+        } finally {
+            context.bind(previous);
+        }
+    }
+
+    /**
+     * Executed this element as condition.
+     * @param caju CajuScript
+     * @param context Context
+     * @param syntax Syntax
+     * @return Result of the condition
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public boolean test(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
+        return execute(caju, context, syntax).getBooleanValue();
+    }
+
+    private Value executeElements(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         for (Element element : elements) {
             Value v = element.execute(caju, context, syntax);
             if (v != null && canElementReturn(element)) {
@@ -129,18 +170,45 @@ public class Base implements Element, java.io.Serializable, Cloneable {
      * @throws org.cajuscript.CajuScriptException Errors ocurred on parsing
      */
     public void parse(CajuScript caju, String script, Syntax syntax) throws CajuScriptException {
-        parse(null, caju, null, script, syntax);
+        Lexer lexer = new Lexer(caju, script);
+        List<LineDetail> lines = lexer.statements(syntax, null);
+        parse(caju, lines, lexer.getConstants(), syntax);
+    }
+
+    /**
+     * Script parse, without constants of string literals.
+     * @param caju CajuScript instance
+     * @param lines Statements of the script, read by the {@link Lexer}
+     * @param syntax Syntax style of the script
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on parsing
+     */
+    public void parse(CajuScript caju, List<LineDetail> lines, Syntax syntax) throws CajuScriptException {
+        parse(caju, lines, Collections.<String, Value>emptyMap(), syntax);
     }
-    private LineDetail parseLastLineDetail = null;
-    private void parse(Element base, CajuScript caju, LineDetail lineDetail, String script, Syntax syntax) throws CajuScriptException {
-        if (base == null) {
-            base = this;
+
+    /**
+     * Script parse.
+     * @param caju CajuScript instance
+     * @param lines Statements of the script, read by the {@link Lexer}
+     * @param constants Constants of the string literals, read by the {@link Lexer}
+     * @param syntax Syntax style of the script
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on parsing
+     */
+    public void parse(CajuScript caju, List<LineDetail> lines, Map<String, Value> constants, Syntax syntax) throws CajuScriptException {
+        this.constants = constants;
+        try {
+            parse(this, caju, lines, 0, lines.size(), syntax);
+            Optimizer.optimize(this, constants, syntax);
+            scope = Scope.resolve(this, constants, syntax);
+        } finally {
+            this.constants = null;
         }
-        String[] lines = script.split(CajuScript.SUBLINE_LIMITER);
-        for (int y = 0; y < lines.length; y++) {
-            String line = lines[y].trim();
-            lineDetail = loadLineDetail(line);
-            line = lineDetail.getContent().trim();
+    }
+
+    private void parse(Element base, CajuScript caju, List<LineDetail> lines, int begin, int end, Syntax syntax) throws CajuScriptException {
+        for (int y = begin; y < end; y++) {
+            LineDetail lineDetail = lines.get(y);
+            String line = lineDetail.getContent();
             String label = "";
             SyntaxPosition syntaxPosition = null;
             if ((syntaxPosition = syntax.matcherPosition(line, syntax.getLabel())).getStart() == 0) {
@@ -158,47 +226,42 @@ public class Base implements Element, java.io.Serializable, Cloneable {
             } else if ((syntaxPosition = syntax.matcherPosition(line, syntax.getIf())).getStart() == 0) {
                 SyntaxPosition syntaxPositionIf = syntaxPosition;
                 String scriptIFCondition = syntaxPositionIf.getGroup();
-                StringBuilder scriptIF = new StringBuilder();
+                int scriptIFBegin = y + 1;
                 List<String> ifsConditions = new ArrayList<String>();
-                List<String> ifsStatements = new ArrayList<String>();
+                List<int[]> ifsStatements = new ArrayList<int[]>();
                 int ifLevel = 0;
                 boolean ifClosed = false;
-                for (int z = y + 1; z < lines.length; z++) {
+                for (int z = y + 1; z < end; z++) {
                     y++;
-                    String originalIFline = lines[z];
-                    String scriptIFline = originalIFline.trim();
-                    LineDetail _lineDetail = loadLineDetail(scriptIFline);
-                    scriptIFline = _lineDetail.getContent().trim();
+                    String scriptIFline = lines.get(z).getContent();
                     SyntaxPosition syntaxPositionElseIf = null;
                     if (ifLevel == 0 && (syntaxPositionElseIf = syntax.matcherPosition(scriptIFline, syntax.getElseIf())).getStart() == 0) {
                         ifsConditions.add(scriptIFCondition);
-                        ifsStatements.add(scriptIF.toString());
+                        ifsStatements.add(new int[] {scriptIFBegin, z});
                         String condition = syntaxPositionElseIf.getGroup();
                         if (condition.trim().length() == 0) {
                             condition = "true";
                         }
                         scriptIFCondition = condition;
-                        scriptIF.delete(0, scriptIF.length());
+                        scriptIFBegin = z + 1;
                         continue;
                     } else if (ifLevel == 0 && (syntaxPositionElseIf = syntax.matcherPosition(scriptIFline, syntax.getElse())).getStart() == 0) {
                         ifsConditions.add(scriptIFCondition);
-                        ifsStatements.add(scriptIF.toString());
+                        ifsStatements.add(new int[] {scriptIFBegin, z});
                         scriptIFCondition = "true";
-                        scriptIF.delete(0, scriptIF.length());
+                        scriptIFBegin = z + 1;
                         continue;
                     } else if (isStatementBegins(scriptIFline, syntax)) {
                         ifLevel++;
                     } else if (isStatementEnds(scriptIFline, syntax)) {
                         if (ifLevel == 0) {
                             ifsConditions.add(scriptIFCondition);
-                            ifsStatements.add(scriptIF.toString());
+                            ifsStatements.add(new int[] {scriptIFBegin, z});
                             ifClosed = true;
                             break;
                         }
                         ifLevel--;
                     }
-                    scriptIF.append(originalIFline);
-                    scriptIF.append(CajuScript.SUBLINE_LIMITER);
                 }
                 if (ifLevel != 0 || !ifClosed) {
                     throw CajuScriptException.create(caju, caju.getContext(), "\"If\" statement sintax error, maybe any \"if\" statement was not closed.");
@@ -206,39 +269,36 @@ public class Base implements Element, java.io.Serializable, Cloneable {
                 IfGroup ifGroup = new IfGroup(lineDetail);
                 for (int i = 0; i < ifsConditions.size(); i++) {
                     String _ifCondition = ifsConditions.get(i);
-                    String _ifContent = ifsStatements.get(i);
+                    int[] _ifContent = ifsStatements.get(i);
                     _ifCondition = _ifCondition.trim();
                     If _if = new If(lineDetail);
                     Variable var = new Variable(lineDetail);
                     var.setValue(evalValue(var, caju, lineDetail, syntax, _ifCondition));
                     _if.setCondition(var);
-                    parse(_if, caju, lineDetail, _ifContent, syntax);
+                    parse(_if, caju, lines, _ifContent[0], _ifContent[1], syntax);
                     ifGroup.addElement(_if);
                 }
                 base.addElement(ifGroup);
             } else if ((syntaxPosition = syntax.matcherPosition(line, syntax.getLoop())).getStart() == 0) {
                 SyntaxPosition syntaxPositionLoop = syntaxPosition;
                 String scriptLOOPCondition = syntaxPositionLoop.getGroup();
-                StringBuilder scriptLOOP = new StringBuilder();
+                int scriptLOOPBegin = y + 1;
+                int scriptLOOPEnd = end;
                 int loopLevel = 0;
                 boolean loopClosed = false;
-                for (int z = y + 1; z < lines.length; z++) {
+                for (int z = y + 1; z < end; z++) {
                     y++;
-                    String originalLOOPline = lines[z];
-                    String scriptLOOPline = originalLOOPline.trim();
-                    LineDetail _lineDetail = loadLineDetail(scriptLOOPline);
-                    scriptLOOPline = _lineDetail.getContent().trim();
+                    String scriptLOOPline = lines.get(z).getContent();
                     if (isStatementBegins(scriptLOOPline, syntax)) {
                         loopLevel++;
                     } else if (isStatementEnds(scriptLOOPline, syntax)) {
                         if (loopLevel == 0) {
+                            scriptLOOPEnd = z;
                             loopClosed = true;
                             break;
                         }
                         loopLevel--;
                     }
-                    scriptLOOP.append(originalLOOPline);
-                    scriptLOOP.append(CajuScript.SUBLINE_LIMITER);
                 }
                 if (loopLevel != 0 || !loopClosed) {
                     throw CajuScriptException.create(caju, caju.getContext(), "\"Loop\" statement sintax error, maybe any \"loop\" statement was not closed.");
@@ -248,65 +308,59 @@ public class Base implements Element, java.io.Serializable, Cloneable {
                 Variable var = new Variable(lineDetail);
                 var.setValue(evalValue(var, caju, lineDetail, syntax, scriptLOOPCondition));
                 loop.setCondition(var);
-                parse(loop, caju, lineDetail, scriptLOOP.toString(), syntax);
+                parse(loop, caju, lines, scriptLOOPBegin, scriptLOOPEnd, syntax);
                 base.addElement(loop);
             } else if ((syntaxPosition = syntax.matcherPosition(line, syntax.getFunction())).getStart() == 0) {
                 String scriptFuncDef = syntaxPosition.getGroup();
-                StringBuilder scriptFUNC = new StringBuilder();
+                int scriptFUNCBegin = y + 1;
+                int scriptFUNCEnd = end;
                 int funcLevel = 0;
                 boolean funcClosed = false;
-                for (int z = y + 1; z < lines.length; z++) {
+                for (int z = y + 1; z < end; z++) {
                     y++;
-                    String originalFUNCline = lines[z];
-                    String scriptFUNCline = originalFUNCline.trim();
-                    LineDetail _lineDetail = loadLineDetail(scriptFUNCline);
-                    scriptFUNCline = _lineDetail.getContent().trim();
+                    String scriptFUNCline = lines.get(z).getContent();
                     if (syntax.matcherPosition(scriptFUNCline, syntax.getFunction()).getStart() == 0) {
                         funcLevel++;
                     } else if (isStatementBegins(scriptFUNCline, syntax)) {
                         funcLevel++;
                     } else if (isStatementEnds(scriptFUNCline, syntax)) {
                         if (funcLevel == 0) {
+                            scriptFUNCEnd = z;
                             funcClosed = true;
                             break;
                         }
                         funcLevel--;
                     }
-                    scriptFUNC.append(originalFUNCline);
-                    scriptFUNC.append(CajuScript.SUBLINE_LIMITER);
                 }
                 if (funcLevel != 0 || !funcClosed) {
                     throw CajuScriptException.create(caju, caju.getContext(), "\"Function\" statement sintax error, maybe any \"function\" statement was not closed.");
                 }
                 Function func = new Function(lineDetail);
                 func.setDefinition(scriptFuncDef, syntax);
-                parse(func, caju, lineDetail, scriptFUNC.toString(), syntax);
+                parse(func, caju, lines, scriptFUNCBegin, scriptFUNCEnd, syntax);
+                Optimizer.optimize(func, constants, syntax);
+                func.scope = Scope.resolve(func, constants, syntax);
                 caju.setFunc(func.getName(), func);
             } else if ((syntaxPosition = syntax.matcherPosition(line, syntax.getTry())).getStart() == 0) {
                 String scriptTRYCATCHerrorVar = syntaxPosition.getGroup();
-                StringBuilder scriptTRY = new StringBuilder();
-                StringBuilder scriptCATCH = new StringBuilder();
-                StringBuilder scriptFINALLY = new StringBuilder();
-                boolean isTry = true;
-                boolean isCatch = false;
-                boolean isFinally = false;
+                int[] scriptTRY = new int[] {y + 1, y + 1};
+                int[] scriptCATCH = new int[] {0, 0};
+                int[] scriptFINALLY = new int[] {0, 0};
+                int[] scriptCurrent = scriptTRY;
                 int tryLevel = 0;
                 boolean tryClosed = false;
-                for (int z = y + 1; z < lines.length; z++) {
+                for (int z = y + 1; z < end; z++) {
                     y++;
-                    String originalTRYCATCHline = lines[z];
-                    String scriptTRYCATCHline = originalTRYCATCHline.trim();
-                    LineDetail _lineDetail = loadLineDetail(scriptTRYCATCHline);
-                    scriptTRYCATCHline = _lineDetail.getContent().trim();
+                    String scriptTRYCATCHline = lines.get(z).getContent();
                     if (tryLevel == 0 && syntax.matcherPosition(scriptTRYCATCHline, syntax.getTryCatch()).getStart() == 0) {
-                        isTry = false;
-                        isCatch = true;
-                        isFinally = false;
+                        scriptCurrent = scriptCATCH;
+                        scriptCurrent[0] = z + 1;
+                        scriptCurrent[1] = z + 1;
                         continue;
                     } else if (tryLevel == 0 && syntax.matcherPosition(scriptTRYCATCHline, syntax.getTryFinally()).getStart() == 0) {
-                        isTry = false;
-                        isCatch = false;
-                        isFinally = true;
+                        scriptCurrent = scriptFINALLY;
+                        scriptCurrent[0] = z + 1;
+                        scriptCurrent[1] = z + 1;
                         continue;
                     } else if (isStatementBegins(scriptTRYCATCHline, syntax)) {
                         tryLevel++;
@@ -317,16 +371,7 @@ public class Base implements Element, java.io.Serializable, Cloneable {
                         }
                         tryLevel--;
                     }
-                    if (isTry) {
-                        scriptTRY.append(originalTRYCATCHline);
-                        scriptTRY.append(CajuScript.SUBLINE_LIMITER);
-                    } else if (isCatch) {
-                        scriptCATCH.append(originalTRYCATCHline);
-                        scriptCATCH.append(CajuScript.SUBLINE_LIMITER);
-                    } else if (isFinally) {
-                        scriptFINALLY.append(originalTRYCATCHline);
-                        scriptFINALLY.append(CajuScript.SUBLINE_LIMITER);
-                    }
+                    scriptCurrent[1] = z + 1;
                 }
                 if (tryLevel != 0 || !tryClosed) {
                     throw CajuScriptException.create(caju, caju.getContext(), "\"Try\" statement sintax error, maybe any \"try\" statement was not closed.");
@@ -335,11 +380,11 @@ public class Base implements Element, java.io.Serializable, Cloneable {
                 Variable error = new Variable(lineDetail);
                 error.setKey(scriptTRYCATCHerrorVar.trim());
                 Base _try = new Base(lineDetail);
-                parse(_try, caju, lineDetail, scriptTRY.toString(), syntax);
+                parse(_try, caju, lines, scriptTRY[0], scriptTRY[1], syntax);
                 Base _catch = new Base(lineDetail);
-                parse(_catch, caju, lineDetail, scriptCATCH.toString(), syntax);
+                parse(_catch, caju, lines, scriptCATCH[0], scriptCATCH[1], syntax);
                 Base _finally = new Base(lineDetail);
-                parse(_finally, caju, lineDetail, scriptFINALLY.toString(), syntax);
+                parse(_finally, caju, lines, scriptFINALLY[0], scriptFINALLY[1], syntax);
                 tryCatch.setError(error);
                 tryCatch.setTry(_try);
                 tryCatch.setCatch(_catch);
@@ -399,18 +444,6 @@ public class Base implements Element, java.io.Serializable, Cloneable {
         }
     }
     
-    private LineDetail loadLineDetail(String line) {
-        if (line.startsWith(CajuScript.LINE_DETAIL_START)) {
-            int indexLineInfoEnd = line.indexOf(CajuScript.LINE_DETAIL_END);
-            int lineNumber = Integer.parseInt(line.substring(CajuScript.LINE_DETAIL_START.length(), indexLineInfoEnd));
-            line = line.substring(indexLineInfoEnd + CajuScript.LINE_DETAIL_END.length());
-            parseLastLineDetail = new LineDetail(lineNumber, line);
-            return parseLastLineDetail;
-        } else {
-            return new LineDetail(parseLastLineDetail.getNumber(), line);
-        }
-    }
-    
     private boolean isStatementBegins(String line, Syntax syntax) {
         if (syntax.matcherPosition(line, syntax.getIf()).getStart() == 0) {
             return true;
@@ -438,12 +471,20 @@ public class Base implements Element, java.io.Serializable, Cloneable {
     }
     
     private Element condition(Element base, CajuScript caju, LineDetail lineDetail, Syntax syntax, String script) throws CajuScriptException {
+        Element condition = conditionTree(base, caju, lineDetail, syntax, script);
+        if (isLogical(condition)) {
+            moveGroups(base, (Operation) condition);
+        }
+        return condition;
+    }
+
+    private Element conditionTree(Element base, CajuScript caju, LineDetail lineDetail, Syntax syntax, String script) throws CajuScriptException {
         try {
             script = script.trim();
             SyntaxPosition syntaxPositionLogical = syntax.firstOperatorLogical(script);
             if (syntaxPositionLogical.getStart() > -1) {
                 Operation o = new Operation(lineDetail);
-                o.setCommands(condition(base, caju, lineDetail, syntax, script.substring(0, syntaxPositionLogical.getStart())), syntaxPositionLogical.getOperator(), condition(base, caju, lineDetail, syntax, script.substring(syntaxPositionLogical.getEnd())));
+                o.setCommands(conditionTree(base, caju, lineDetail, syntax, script.substring(0, syntaxPositionLogical.getStart())), syntaxPositionLogical.getOperator(), conditionTree(base, caju, lineDetail, syntax, script.substring(syntaxPositionLogical.getEnd())));
                 return o;
             } else if (script.length() != 0) {
                 SyntaxPosition syntaxPosition = syntax.firstOperatorConditional(script);
@@ -465,6 +506,78 @@ public class Base implements Element, java.io.Serializable, Cloneable {
         }
     }
 
+    /**
+     * Move the groups and maths used only by the second command of the
+     * logical operation to inside of the operation, so they are executed only
+     * when the first command does not decide the result. The groups used by
+     * the first command, also when the same group is used by both commands,
+     * are kept before the operation. In a chain of logical operations the
+     * groups are moved from the outer operation to the inner operations.
+     */
+    private void moveGroups(Element base, Operation operation) {
+        List<Element> elements = base.getElements();
+        Set<String> firstKeys = new HashSet<String>();
+        references(operation.getFirstCommand(), firstKeys);
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            Element element = elements.get(i);
+            if (element instanceof Variable && firstKeys.contains(((Variable) element).getKey())) {
+                references(element, firstKeys);
+            }
+        }
+        Set<String> keys = new HashSet<String>();
+        references(operation.getSecondCommand(), keys);
+        List<Element> moved = new ArrayList<Element>();
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            Element element = elements.get(i);
+            if (element instanceof Variable && keys.contains(((Variable) element).getKey())
+                    && !firstKeys.contains(((Variable) element).getKey())) {
+                references(element, keys);
+                moved.add(0, element);
+                elements.remove(i);
+            }
+        }
+        for (Element element : moved) {
+            operation.addElement(element);
+        }
+        if (isLogical(operation.getSecondCommand())) {
+            moveGroups(operation, (Operation) operation.getSecondCommand());
+        }
+    }
+
+    private boolean isLogical(Element element) {
+        if (element instanceof Operation) {
+            Operation.Operator operator = ((Operation) element).getOperator();
+            return operator == Operation.Operator.AND || operator == Operation.Operator.OR;
+        }
+        return false;
+    }
+
+    private void references(Element element, Set<String> keys) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Command) {
+            String command = ((Command) element).getCommand();
+            int i = 0;
+            while ((i = command.indexOf(CajuScript.CAJU_VARS, i)) > -1) {
+                int end = i + CajuScript.CAJU_VARS.length();
+                while (end < command.length() && Character.isJavaIdentifierPart(command.charAt(end))) {
+                    end++;
+                }
+                keys.add(command.substring(i, end));
+                i = end;
+            }
+        } else if (element instanceof Variable) {
+            references(((Variable) element).getValue(), keys);
+        } else if (element instanceof Operation) {
+            references(((Operation) element).getFirstCommand(), keys);
+            references(((Operation) element).getSecondCommand(), keys);
+        }
+        for (Element e : element.getElements()) {
+            references(e, keys);
+        }
+    }
+
     private Element evalValue(Element base, CajuScript caju, LineDetail lineDetail, Syntax syntax, String script) throws CajuScriptException {
         return evalValueGroup(base, caju, lineDetail, syntax, script, false);
     }
@@ -481,7 +594,7 @@ public class Base implements Element, java.io.Serializable, Cloneable {
                 if (firstOperator.getStart() == 0) {
                     firstOperator = syntax.firstOperatorMathematic(script.substring(firstOperator.getEnd()));
                 }
-                SyntaxPosition priorityOperator = syntax.firstOperator(script, syntax.getOperatorMultiplication(), syntax.getOperatorDivision(), syntax.getOperatorModules());
+                SyntaxPosition priorityOperator = syntax.firstOperatorPriority(script);
                 if (priorityOperator.getStart() > firstOperator.getStart()) {
                     SyntaxPosition syntaxOperator1 = syntax.lastOperatorMathematic(script.substring(0, priorityOperator.getStart()));
                     String script1 = syntaxOperator1.getStart() > -1 ? script.substring(0, syntaxOperator1.getStart()) : "";
@@ -589,18 +702,16 @@ public class Base implements Element, java.io.Serializable, Cloneable {
             Command c = new Command(lineDetail);
             String cmd = syntaxPosition.getGroup();
             String functionName = cmd.substring(0, syntax.matcherPosition(cmd, callParametersBegin).getStart());
-            SyntaxPosition syntaxFixOperator = syntax.lastOperatorLogical(functionName);
-            if (syntaxFixOperator.getEnd() > -1) {
+            SyntaxPosition syntaxFixOperator = new SyntaxPosition(syntax);
+            if (syntax.lastOperatorLogical(functionName, 0, functionName.length(), syntaxFixOperator)) {
                 syntaxPosition.setStart(syntaxPosition.getStart() + syntaxFixOperator.getEnd());
                 cmd = cmd.substring(syntaxFixOperator.getEnd());
             }
-            syntaxFixOperator = syntax.lastOperatorConditional(functionName);
-            if (syntaxFixOperator.getEnd() > -1) {
+            if (syntax.lastOperatorConditional(functionName, 0, functionName.length(), syntaxFixOperator)) {
                 syntaxPosition.setStart(syntaxPosition.getStart() + syntaxFixOperator.getEnd());
                 cmd = cmd.substring(syntaxFixOperator.getEnd());
             }
-            syntaxFixOperator = syntax.lastOperatorMathematic(functionName);
-            if (syntaxFixOperator.getEnd() > -1) {
+            if (syntax.lastOperatorMathematic(functionName, 0, functionName.length(), syntaxFixOperator)) {
                 syntaxPosition.setStart(syntaxPosition.getStart() + syntaxFixOperator.getEnd());
                 cmd = cmd.substring(syntaxFixOperator.getEnd());
             }
@@ -31,6 +31,7 @@ import org.cajuscript.CajuScriptException;
  */
 public class Break extends Base {
     private String label = "";
+    private int target = 0;
     
     /**
      * Create new Break.
@@ -56,6 +57,22 @@ public class Break extends Base {
         this.label = label;
     }
     
+    /**
+     * Get index of the loop target, resolved by the {@link Scope}.
+     * @return Loop index, 0 if is not inside of a loop.
+     */
+    public int getTarget() {
+        return target;
+    }
+    
+    /**
+     * Set index of the loop target.
+     * @param target Loop index.
+     */
+    public void setTarget(int target) {
+        this.target = target;
+    }
+    
     /**
      * Executed this element.
      * @param caju CajuScript
@@ -68,11 +85,7 @@ public class Break extends Base {
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         caju.setRunningLine(getLineDetail());
         Value v = new Value(caju, context, syntax);
-        if (getLabel().length() != 0) {
-            v.setFlag("break:".concat(getLabel()));
-        } else {
-            v.setFlag("break");
-        }
+        v.setFlag(Value.Flag.BREAK, target);
         return v;
     }
 }
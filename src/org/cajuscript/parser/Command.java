@@ -32,8 +32,11 @@ import org.cajuscript.CajuScriptException;
 public class Command extends Base {
     private String type = "";
     private String command = "";
-    private String contextsKey;
     private String valueKey;
+    private int valueRegister = -1;
+    private int slot = -1;
+    private int register = -1;
+    private Value literal = null;
     
     /**
      * Create new Command.
@@ -41,7 +44,6 @@ public class Command extends Base {
      */
     public Command(LineDetail line) {
         super(line);
-        contextsKey = org.cajuscript.CajuScript.CAJU_VARS.concat("_contexts_").concat(Integer.toString(this.hashCode()));
         valueKey = org.cajuscript.CajuScript.CAJU_VARS.concat("_value_").concat(Integer.toString(this.hashCode()));
     }
 
@@ -77,6 +79,70 @@ public class Command extends Base {
         command = c.trim();
     }
     
+    /**
+     * Get key of the value of this command.
+     * @return Key
+     */
+    public String getValueKey() {
+        return valueKey;
+    }
+
+    /**
+     * Set register of the value of this command.
+     * @param valueRegister Register index
+     */
+    public void setValueRegister(int valueRegister) {
+        this.valueRegister = valueRegister;
+    }
+
+    /**
+     * Get slot of the variable when the command is only a variable.
+     * @return Slot index, -1 if is not resolved
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Set slot of the variable when the command is only a variable.
+     * @param slot Slot index
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Get register when the command is only a temporary value.
+     * @return Register index, -1 if is not resolved
+     */
+    public int getRegister() {
+        return register;
+    }
+
+    /**
+     * Set register when the command is only a temporary value.
+     * @param register Register index
+     */
+    public void setRegister(int register) {
+        this.register = register;
+    }
+
+    /**
+     * Get value of the command when is a literal.
+     * @return Value, null if the command is not a literal
+     */
+    public Value getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Set value of the command when is a literal, classified in the parse.
+     * @param literal Value of the literal
+     */
+    public void setLiteral(Value literal) {
+        this.literal = literal;
+    }
+
     /**
      * Executed this element.
      * @param caju CajuScript
@@ -85,31 +151,36 @@ public class Command extends Base {
      * @return Value returned by execution
      * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
      */
-    @SuppressWarnings("unchecked")
     @Override
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         caju.setRunningLine(getLineDetail());
-        Value contextsValue = context.getVar(contextsKey);
-        if (contextsValue == null) {
-            contextsValue = caju.toValue(new java.util.ArrayList<Context>());
-            context.setVar(contextsKey, contextsValue);
-        }
-        java.util.ArrayList<Context> contexts = (java.util.ArrayList<Context>)contextsValue.getValue();
-        Value value = context.getVar(valueKey);
-        if (value == null || !contexts.contains(context)) {
-            contexts.add(context);
+        Value value = valueRegister > -1 ? context.getRegister(valueRegister) : context.getVar(valueKey);
+        if (value == null) {
             value = new Value(caju, context, syntax);
+            if (literal != null) {
+                value.copyValue(literal);
+            } else {
+                value.setScript(command);
+            }
             if (type.length() != 0) {
                 value.setClassType(type);
             }
-            value.setScript(command);
-            context.setVar(valueKey, value);
+            if (valueRegister > -1) {
+                context.setRegister(valueRegister, value);
+            } else {
+                context.setVar(valueKey, value);
+            }
         } else if (value.isCommand()) {
             if (type.length() != 0) {
                 value.setClassType(type);
             }
-            value.setContext(context);
-            value.setCommand(command);
+            Value v = slot > -1 ? context.getVar(slot) : register > -1 ? context.getRegister(register) : null;
+            if (v != null) {
+                value.copyValue(v);
+            } else {
+                value.setContext(context);
+                value.setCommand(command);
+            }
         }
         return value;
     }
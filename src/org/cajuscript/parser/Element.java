@@ -67,4 +67,12 @@ public interface Element {
      * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
      */
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException;  
+
+    /**
+     * Executed this element as condition.
+     * @param caju CajuScript instance
+     * @return Result of the condition
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public boolean test(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException;
 }
\ No newline at end of file
@@ -19,7 +19,10 @@
 
 package org.cajuscript.parser;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import org.cajuscript.CajuScript;
 import org.cajuscript.Context;
 import org.cajuscript.Value;
@@ -27,14 +30,20 @@ import org.cajuscript.Syntax;
 import org.cajuscript.CajuScriptException;
 import org.cajuscript.SyntaxPosition;
 import org.cajuscript.compiler.Executable;
+import org.cajuscript.compiler.FunctionDispatcher;
 
 /**
  * Script element of type function.
  * @author eduveks
  */
 public class Function extends Base {
+    private static final int FRAMES_MAX = 256;
     private String name = "";
     private String[] paramKey = new String[0];
+    private int index = -1;
+    private transient Method method = null;
+    private transient int[] paramSlots = null;
+    private transient ThreadLocal<Frames> frames = new ThreadLocal<Frames>();
     
     /**
      * Create new Function.
@@ -62,6 +71,34 @@ public class Function extends Base {
         this.name = name;
         this.paramKey = parameters;
     }
+
+    /**
+     * Create new Function of a script compiled, invoked by the index with
+     * {@link org.cajuscript.compiler.FunctionDispatcher}.
+     * @param executable Executable
+     * @param index Index of the function
+     * @param name Name of the method of the function
+     * @param parameters Parameters
+     */
+    public Function(Executable executable, int index, String name, String[] parameters) {
+        this(executable, name, parameters);
+        this.index = index;
+    }
+
+    /**
+     * Create new Function of a script compiled with the scope of the
+     * variables, so the frames are reused and the variables are loaded by
+     * the slots.
+     * @param executable Executable
+     * @param index Index of the function
+     * @param name Name of the method of the function
+     * @param parameters Parameters
+     * @param scope Scope of the variables of the function
+     */
+    public Function(Executable executable, int index, String name, String[] parameters, Scope scope) {
+        this(executable, index, name, parameters);
+        this.scope = scope;
+    }
     
     /**
      * Set the function definition, name and parameters.
@@ -109,6 +146,14 @@ public class Function extends Base {
         this.name = name;
     }
     
+    /**
+     * Index of the function in the script compiled.
+     * @return Index, -1 if the function is not compiled
+     */
+    public int getIndex() {
+        return index;
+    }
+    
     /**
      * Function parameters.
      * @return Parameters
@@ -123,6 +168,7 @@ public class Function extends Base {
      */
     public void setParameters(String[] paramKey) {
         this.paramKey = paramKey;
+        this.paramSlots = null;
     }
 
     /**
@@ -136,8 +182,119 @@ public class Function extends Base {
         if (executable == null) {
             caju.setRunningLine(getLineDetail());
         }
+        if (scope == null) {
+            return invokeElements(caju, context, syntax, paramValue);
+        }
+        Scope previous = context.bind(scope);
+        try {
+            return invokeElements(caju, context, syntax, paramValue);
+        } finally {
+            context.bind(previous);
+        }
+    }
+
+    /**
+     * Run function from the script, the frame is reused from the frames of
+     * the current thread with the same CajuScript instance, and only the
+     * object returned is kept, so the values of the frame are not used after
+     * the invocation. When the first invocation of the thread returns the
+     * registers of the frames free are cleared, so the frames do not keep
+     * the CajuScript instance.
+     * @param caju CajuScript instance
+     * @param syntax Syntax
+     * @param paramValue Values of parameters
+     * @return Object returned by execution
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public Object call(CajuScript caju, Syntax syntax, Value[] paramValue) throws CajuScriptException {
+        return call(caju, syntax, paramValue, false);
+    }
+
+    /**
+     * Run function from the script like {@link #call}, the value returned
+     * is copied before the frame is reused, so the numbers are returned
+     * without boxing.
+     * @param caju CajuScript instance
+     * @param syntax Syntax
+     * @param paramValue Values of parameters
+     * @return Value returned by execution
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    public Value callValue(CajuScript caju, Syntax syntax, Value[] paramValue) throws CajuScriptException {
+        return (Value) call(caju, syntax, paramValue, true);
+    }
+
+    private Object call(CajuScript caju, Syntax syntax, Value[] paramValue, boolean copy) throws CajuScriptException {
+        if (scope == null) {
+            Value v = invoke(caju, createContext(), syntax, paramValue);
+            return copy ? v : v.getValue();
+        }
+        Frames f = frames.get();
+        if (f == null) {
+            f = new Frames();
+            frames.set(f);
+        }
+        if (f.caju != caju) {
+            if (f.caju != null) {
+                Arrays.fill(f.contexts, null);
+                f.size = 0;
+            }
+            f.caju = caju;
+        }
+        Context frame = f.size == 0 ? new Context(scope) : f.contexts[--f.size];
+        f.depth++;
+        try {
+            Value v = invoke(caju, frame, syntax, paramValue);
+            if (copy) {
+                Value value = new Value(caju, caju.getContext(), syntax);
+                value.copyValue(v);
+                return value;
+            }
+            return v.getValue();
+        } finally {
+            frame.reset();
+            if (f.size < FRAMES_MAX) {
+                if (f.size == f.contexts.length) {
+                    Context[] contexts = new Context[f.size * 2];
+                    System.arraycopy(f.contexts, 0, contexts, 0, f.size);
+                    f.contexts = contexts;
+                }
+                f.contexts[f.size++] = frame;
+            }
+            if (--f.depth == 0) {
+                for (int i = 0; i < f.size; i++) {
+                    f.contexts[i].clearRegisters();
+                }
+                f.caju = null;
+            }
+        }
+    }
+
+    /**
+     * Create a new context to invoke this function, with the variables slots
+     * of the function scope.
+     * @return Context
+     */
+    public Context createContext() {
+        return scope == null ? new Context() : new Context(scope);
+    }
+
+    private Value invokeElements(CajuScript caju, Context context, Syntax syntax, Value... paramValue) throws CajuScriptException {
+        int[] slots = paramSlots;
+        if (slots == null && scope != null) {
+            slots = new int[paramKey.length];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = scope.getSlot(paramKey[i]);
+            }
+            paramSlots = slots;
+        }
         for (int i = 0; i < paramValue.length; i++) {
-            context.setVar(paramKey[i], paramValue[i]);
+            int slot = slots == null ? -1 : slots[i];
+            if (slot > -1) {
+                context.setVar(slot, paramValue[i]);
+            } else {
+                context.setVar(paramKey[i], paramValue[i]);
+            }
         }
         if (executable == null) {
             for (Element element : elements) {
@@ -152,9 +309,18 @@ public class Function extends Base {
                 if (v != null) {
                     return v;
                 }
+            } else if (index > -1 && executable instanceof FunctionDispatcher) {
+                Value v = ((FunctionDispatcher) executable).invokeFunction(index, caju, context, syntax);
+                if (v != null) {
+                    return v;
+                }
             } else {
                 try {
-                    Method m = executable.getClass().getMethod(name, CajuScript.class, Context.class, Syntax.class);
+                    Method m = method;
+                    if (m == null) {
+                        m = executable.getClass().getMethod(name, CajuScript.class, Context.class, Syntax.class);
+                        method = m;
+                    }
                     Value v = (Value)m.invoke(executable, caju, context, syntax);
                     if (v != null) {
                         return v;
@@ -191,4 +357,19 @@ public class Function extends Base {
         caju.setRunningLine(getLineDetail());
         return null;
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        frames = new ThreadLocal<Frames>();
+    }
+
+    /**
+     * Frames free to be reused by the invocations of the current thread.
+     */
+    private static final class Frames {
+        private CajuScript caju = null;
+        private int depth = 0;
+        private Context[] contexts = new Context[4];
+        private int size = 0;
+    }
 }
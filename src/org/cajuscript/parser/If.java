@@ -67,7 +67,7 @@ public class If extends Base {
     @Override
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         caju.setRunningLine(getLineDetail());
-        if (condition.execute(caju, context, syntax).getBooleanValue()) {
+        if (condition.test(caju, context, syntax)) {
             for (Element element : elements) {
                 Value v = element.execute(caju, context, syntax);
                 if (v != null && canElementReturn(element)) {
@@ -75,7 +75,7 @@ public class If extends Base {
                 }
             }
             Value v = caju.toValue(new Boolean(true), context, syntax);
-            v.setFlag("if");
+            v.setFlag(Value.Flag.IF);
             return v;
         } else {
             return null;
@@ -53,7 +53,7 @@ public class IfGroup extends Base {
         for (Element element : elements) {
             Value v = element.execute(caju, context, syntax);
             if (v != null) {
-                if (!v.getFlag().equals("if")) {
+                if (v.getFlag() != Value.Flag.IF) {
                     return v;
                 }
                 break;
@@ -0,0 +1,368 @@
+/*
+ * Lexer.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CajuScriptException;
+import org.cajuscript.Context;
+import org.cajuscript.Syntax;
+import org.cajuscript.SyntaxPosition;
+import org.cajuscript.Value;
+
+/**
+ * Split the script in statements with only one pass over the source.
+ * <p>Line breaks, comments, string literals and statement limiters are
+ * resolved while reading each character, string literals are replaced by
+ * static string keys, kept in the constants of the script, and statements
+ * that opens blocks are splited from the content after the block begin.</p>
+ * <p>Each statement is returned how a {@link LineDetail} with the line and
+ * column where the statement starts in the original source.</p>
+ * @author eduveks
+ */
+public class Lexer {
+    private static final String[] DIRECTIVES = new String[] {"caju.syntax", "caju.cache", "caju.compile"};
+    private static final AtomicLong staticVarsStringCounter = new AtomicLong(1);
+    private CajuScript caju = null;
+    private String script = null;
+    private int length = 0;
+    private int position = 0;
+    private int lineNumber = 1;
+    private int lineStart = 0;
+    private List<LineDetail> statements = null;
+    private StringBuilder statement = new StringBuilder();
+    private int statementColumn = 0;
+    private int[] literals = new int[8];
+    private int literalsCount = 0;
+    private Map<String, Value> constants = new HashMap<String, Value>();
+    private Syntax blocksSyntax = null;
+    private Pattern[] blocks = null;
+
+    /**
+     * Create a new lexer.
+     * @param caju CajuScript instance
+     * @param script Script source
+     */
+    public Lexer(CajuScript caju, String script) {
+        this.caju = caju;
+        this.script = script;
+        this.length = script.length();
+    }
+
+    /**
+     * Next configuration directive, like "caju.syntax", "caju.cache" and
+     * "caju.compile", defined in the begin of the script.
+     * @return Directive content or null if there is no more directives.
+     */
+    public String nextDirective() {
+        skipWhitespaces(true);
+        if (position >= length) {
+            return null;
+        }
+        int end = position;
+        while (end < length) {
+            char c = script.charAt(end);
+            if (c == ';' || c == '\n' || c == '\r') {
+                break;
+            }
+            end++;
+        }
+        String directive = script.substring(position, end).replace('\t', ' ').trim();
+        for (String d : DIRECTIVES) {
+            if (directive.startsWith(d)) {
+                position = end;
+                if (position < length && script.charAt(position) == ';') {
+                    position++;
+                }
+                return directive;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Constants of the string literals read by {@link #statements}, by the
+     * static string key. The strings are interned and the values must not be
+     * changed.
+     * @return Constants, can not be modified
+     */
+    public Map<String, Value> getConstants() {
+        return Collections.unmodifiableMap(constants);
+    }
+
+    /**
+     * Read all statements after the directives.
+     * @param syntax Syntax of the script
+     * @param staticContext Context to receive a copy of the static strings, can be null
+     * @return Statements
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on reading
+     */
+    public List<LineDetail> statements(Syntax syntax, Context staticContext) throws CajuScriptException {
+        statements = new ArrayList<LineDetail>();
+        Context context = caju.getContext();
+        Pattern[] commentsPatterns = syntax.getComments();
+        Matcher[] comments = new Matcher[commentsPatterns.length];
+        for (int i = 0; i < comments.length; i++) {
+            comments[i] = commentsPatterns[i].matcher(script);
+        }
+        StringBuilder staticStringValue = new StringBuilder();
+        String staticStringKey = null;
+        char quote = 0;
+        int literalStart = 0;
+        skipWhitespaces(false);
+        newStatement();
+        while (position < length) {
+            if (position == lineStart) {
+                skipWhitespaces(false);
+                if (position >= length) {
+                    break;
+                }
+                char c = script.charAt(position);
+                if (c == '\n' || c == '\r') {
+                    newLine();
+                    continue;
+                }
+                if (isComment(comments)) {
+                    while (position < length && (c = script.charAt(position)) != '\n' && c != '\r') {
+                        position++;
+                    }
+                    continue;
+                }
+                newStatement();
+            }
+            char c = script.charAt(position);
+            if (c == '\n' || c == '\r') {
+                if (quote != 0) {
+                    caju.setRunningLine(new LineDetail(lineNumber, script.substring(lineStart, position).trim()));
+                    throw CajuScriptException.create(caju, context, "String not closed");
+                }
+                endStatement(syntax);
+                newLine();
+                continue;
+            }
+            char previous = position > lineStart ? script.charAt(position - 1) : 0;
+            if (quote == 0) {
+                if (c == '\'' || c == '"') {
+                    if (previous != '\\') {
+                        quote = c;
+                        staticStringKey = CajuScript.CAJU_VARS_STATIC_STRING.concat(caju.nextVarsCounter()).concat(
+                                Long.toString(staticVarsStringCounter.getAndIncrement() & Long.MAX_VALUE));
+                        staticStringValue.setLength(0);
+                        literalStart = position;
+                    } else {
+                        statement.append(c);
+                    }
+                } else if (c == ';') {
+                    endStatement(syntax);
+                    position++;
+                    skipWhitespaces(false);
+                    newStatement();
+                    continue;
+                } else {
+                    statement.append(c);
+                }
+            } else if (c == quote && previous != '\\') {
+                String literal = Character.toString(quote).concat(staticStringValue.toString()).concat(Character.toString(quote));
+                Value valueString = new Value(null, null, null);
+                valueString.setScript(literal);
+                valueString.setString(valueString.toString().intern());
+                constants.put(staticStringKey, valueString);
+                if (staticContext != null) {
+                    staticContext.setStaticString(staticStringKey, valueString.toString());
+                }
+                addLiteral(statement.length(), staticStringKey.length(), position + 1 - literalStart);
+                statement.append(staticStringKey);
+                quote = 0;
+            } else {
+                staticStringValue.append(c);
+            }
+            position++;
+        }
+        if (quote != 0) {
+            caju.setRunningLine(new LineDetail(lineNumber, script.substring(lineStart).trim()));
+            throw CajuScriptException.create(caju, context, "String not closed");
+        }
+        endStatement(syntax);
+        return statements;
+    }
+
+    private void skipWhitespaces(boolean skipLimiters) {
+        while (position < length) {
+            char c = script.charAt(position);
+            if (c == '\n' || c == '\r') {
+                if (!skipLimiters) {
+                    return;
+                }
+                newLine();
+                continue;
+            } else if (!Character.isWhitespace(c) && !(skipLimiters && c == ';')) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void newLine() {
+        char c = script.charAt(position);
+        position++;
+        if (position < length) {
+            char n = script.charAt(position);
+            if ((c == '\r' && n == '\n') || (c == '\n' && n == '\r')) {
+                position++;
+            }
+        }
+        lineNumber++;
+        lineStart = position;
+    }
+
+    private boolean isComment(Matcher[] comments) {
+        int end = position;
+        while (end < length) {
+            char c = script.charAt(end);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            end++;
+        }
+        while (end > position && Character.isWhitespace(script.charAt(end - 1))) {
+            end--;
+        }
+        for (Matcher comment : comments) {
+            comment.region(position, end);
+            if (comment.lookingAt()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void newStatement() {
+        statement.setLength(0);
+        statementColumn = position - lineStart + 1;
+        literalsCount = 0;
+    }
+
+    private void addLiteral(int start, int keyLength, int sourceLength) {
+        if (literalsCount + 3 > literals.length) {
+            int[] _literals = new int[literals.length * 2];
+            System.arraycopy(literals, 0, _literals, 0, literalsCount);
+            literals = _literals;
+        }
+        literals[literalsCount++] = start;
+        literals[literalsCount++] = keyLength;
+        literals[literalsCount++] = sourceLength;
+    }
+
+    private int column(int offset) {
+        int column = statementColumn + offset;
+        for (int i = 0; i < literalsCount && literals[i] < offset; i += 3) {
+            column += literals[i + 2] - literals[i + 1];
+        }
+        return column;
+    }
+
+    private void endStatement(Syntax syntax) {
+        String line = statement.toString();
+        int offset = 0;
+        while (offset < line.length() && Character.isWhitespace(line.charAt(offset))) {
+            offset++;
+        }
+        line = line.trim();
+        while (line.length() > 0) {
+            int p = endLineIndex(line, syntax);
+            if (p > -1) {
+                addStatement(line.substring(0, p).trim(), offset);
+                int next = p;
+                while (next < line.length() && Character.isWhitespace(line.charAt(next))) {
+                    next++;
+                }
+                offset += next;
+                line = line.substring(next);
+            } else {
+                addStatement(line, offset);
+                break;
+            }
+        }
+        statement.setLength(0);
+        literalsCount = 0;
+    }
+
+    private void addStatement(String content, int offset) {
+        if (content.length() == 0) {
+            return;
+        }
+        statements.add(new LineDetail(lineNumber, column(offset), content));
+    }
+
+    /**
+     * Patterns of the blocks begin and end, created only one time by syntax.
+     */
+    private Pattern[] blocks(Syntax syntax) {
+        if (blocks == null || blocksSyntax != syntax) {
+            blocks = new Pattern[] {
+                syntax.getIf(), syntax.getElseIf(), syntax.getElse(), syntax.getLoop(),
+                syntax.getFunction(), syntax.getTry(), syntax.getTryCatch(), syntax.getTryFinally(),
+                syntax.getIfEnd(), syntax.getLoopEnd(), syntax.getFunctionEnd(), syntax.getTryEnd()
+            };
+            blocksSyntax = syntax;
+        }
+        return blocks;
+    }
+
+    private int endLineIndex(String line, Syntax syntax) {
+        if (line.length() == 0) {
+            return -1;
+        }
+        SyntaxPosition syntaxPosition = null;
+        int l = -1;
+        if ((l = syntax.matcherPosition(line, syntax.getLabel()).getEnd()) > -1) {
+            line = line.substring(l);
+        }
+        Pattern[] patterns = blocks(syntax);
+        int id = -1;
+        int idStart = Integer.MAX_VALUE;
+        int idEnd = Integer.MAX_VALUE;
+        for (int i = 0; i < patterns.length; i++) {
+            if ((syntaxPosition = syntax.matcherPosition(line, patterns[i])).getEnd() > -1) {
+                int start = syntaxPosition.getStart();
+                int end = syntaxPosition.getEnd();
+                if (id == -1 || end <= idStart || (start < idStart && idEnd == end)) {
+                    id = i;
+                    idStart = start;
+                    idEnd = end;
+                }
+            }
+        }
+        if (id > -1) {
+            if (id == 3 && l > -1) {
+                idEnd += l;
+            }
+            return idEnd;
+        }
+        return -1;
+    }
+}
@@ -26,6 +26,7 @@ package org.cajuscript.parser;
 public class LineDetail implements java.io.Serializable {
     private String content = "";
     private int number = 0;
+    private int column = 0;
     
     /**
      * Create new line detail.
@@ -36,6 +37,18 @@ public class LineDetail implements java.io.Serializable {
         content = c;
         number = n;
     }
+
+    /**
+     * Create new line detail.
+     * @param n Line number
+     * @param col Column where the content starts
+     * @param c Line content
+     */
+    public LineDetail(int n, int col, String c) {
+        content = c;
+        number = n;
+        column = col;
+    }
     
     /**
      * Get line content
@@ -53,6 +66,14 @@ public class LineDetail implements java.io.Serializable {
         return number;
     }
     
+    /**
+     * Get column where the content starts in the line
+     * @return Column
+     */
+    public int getColumn() {
+        return column;
+    }
+    
     /**
      * Set line content
      * @param content Content
@@ -32,6 +32,7 @@ import org.cajuscript.CajuScriptException;
 public class Loop extends Base {
     private Element condition = null;
     private String label = "";
+    private int index = 0;
     
     /**
      * Create new Loop.
@@ -73,6 +74,23 @@ public class Loop extends Base {
         this.label = label;
     }
     
+    /**
+     * Get index of the loop, is the level of the loop inside of the script
+     * or function, resolved by the {@link Scope}.
+     * @return Loop index.
+     */
+    public int getIndex() {
+        return index;
+    }
+    
+    /**
+     * Set index of the loop.
+     * @param index Loop index.
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
     /**
      * Executed this element and all childs elements.
      * @param caju CajuScript
@@ -85,36 +103,17 @@ public class Loop extends Base {
     public Value execute(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
         caju.setRunningLine(getLineDetail());
         loop: while (true) {
-            if (condition.execute(caju, context, syntax).getBooleanValue()) {
+            if (condition.test(caju, context, syntax)) {
                 for (Element element : elements) {
                     Value v = element.execute(caju, context, syntax);
                     if (v != null && canElementReturn(element)) {
-                        if (element instanceof Break && v.getFlag().length() == 0) {
-                            break loop;
-                        } else if (element instanceof Continue && v.getFlag().length() == 0) {
-                            continue loop;
-                        } else if (v.getFlag().length() != 0) {
-                            String act, lbl = "";
-                            int f = v.getFlag().indexOf(':');
-                            if (f > -1) {
-                                act = v.getFlag().substring(0, f);
-                                lbl = v.getFlag().substring(f+1);
-                            } else {
-                                act = v.getFlag();
-                            }
-                            if (!lbl.equals(getLabel())) {
-                                return v;
-                            } else {
-                                v.setFlag("");
-                            }
-                            if (act.equals("break")) {
+                        if (v.getFlagTarget() == index) {
+                            if (v.getFlag() == Value.Flag.BREAK) {
                                 break loop;
-                            } else if (act.equals("continue")) {
-                                continue loop;
                             }
-                        } else {
-                            return v;
+                            continue loop;
                         }
+                        return v;
                     }
                 }
             } else {
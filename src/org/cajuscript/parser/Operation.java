@@ -36,8 +36,8 @@ public class Operation extends Base {
 	private Element firstCommand = null;
 	private Element secondCommand = null;
 	private Operator operator = null;
-	private String contextsKey;
 	private String valueKey;
+	private int valueRegister = -1;
 
 	/**
 	 * Create new Operation.
@@ -47,8 +47,6 @@ public class Operation extends Base {
 	 */
 	public Operation(LineDetail line) {
 		super(line);
-		contextsKey = org.cajuscript.CajuScript.CAJU_VARS.concat("_contexts_")
-				.concat(Integer.toString(this.hashCode()));
 		valueKey = org.cajuscript.CajuScript.CAJU_VARS.concat("_value_")
 				.concat(Integer.toString(this.hashCode()));
 	}
@@ -99,6 +97,25 @@ public class Operation extends Base {
 		this.secondCommand = secondCommand;
 	}
 
+	/**
+	 * Get key of the value of this operation.
+	 * 
+	 * @return Key
+	 */
+	public String getValueKey() {
+		return valueKey;
+	}
+
+	/**
+	 * Set register of the value of this operation.
+	 * 
+	 * @param valueRegister
+	 *            Register index
+	 */
+	public void setValueRegister(int valueRegister) {
+		this.valueRegister = valueRegister;
+	}
+
 	/**
 	 * Executed this element and all childs elements.
 	 * 
@@ -116,21 +133,22 @@ public class Operation extends Base {
 	public Value execute(CajuScript caju, Context context, Syntax syntax)
 			throws CajuScriptException {
 		caju.setRunningLine(getLineDetail());
-		for (Element element : elements) {
-			element.execute(caju, context, syntax);
+		Value v = valueRegister > -1 ? context.getRegister(valueRegister)
+				: context.getVar(valueKey);
+		if (v == null) {
+			v = new Value(caju, context, syntax);
+			if (valueRegister > -1) {
+				context.setRegister(valueRegister, v);
+			} else {
+				context.setVar(valueKey, v);
+			}
 		}
-		Value contextsValue = context.getVar(contextsKey);
-		if (contextsValue == null) {
-			contextsValue = caju.toValue(new java.util.ArrayList<Context>());
-			context.setVar(contextsKey, contextsValue);
+		if (operator == Operator.AND || operator == Operator.OR) {
+			v.setBoolean(test(caju, context, syntax));
+			return v;
 		}
-		java.util.ArrayList<Context> contexts = (java.util.ArrayList<Context>) contextsValue
-				.getValue();
-		Value v = context.getVar(valueKey);
-		if (v == null || !contexts.contains(context)) {
-			contexts.add(context);
-			v = new Value(caju, context, syntax);
-			context.setVar(valueKey, v);
+		for (Element element : elements) {
+			element.execute(caju, context, syntax);
 		}
 		Value v1 = firstCommand.execute(caju, context, syntax);
 		Value v2 = secondCommand.execute(caju, context, syntax);
@@ -138,6 +156,53 @@ public class Operation extends Base {
 		return v;
 	}
 
+	/**
+	 * Executed this element as condition, the logical operations are short
+	 * circuit and the comparisons are not written in a value.
+	 * 
+	 * @param caju
+	 *            CajuScript
+	 * @param context
+	 *            Context
+	 * @param syntax
+	 *            Syntax
+	 * @return Result of the condition
+	 * @throws org.cajuscript.CajuScriptException
+	 *             Errors ocurred on execution
+	 */
+	@Override
+	public boolean test(CajuScript caju, Context context, Syntax syntax)
+			throws CajuScriptException {
+		switch (operator) {
+		case AND:
+		case OR:
+			caju.setRunningLine(getLineDetail());
+			boolean first = firstCommand.test(caju, context, syntax);
+			if (first == (operator == Operator.OR)) {
+				return first;
+			}
+			for (Element element : elements) {
+				element.execute(caju, context, syntax);
+			}
+			return secondCommand.test(caju, context, syntax);
+		case EQUAL:
+		case NOT_EQUAL:
+		case LESS:
+		case GREATER:
+		case LESS_EQUAL:
+		case GREATER_EQUAL:
+			caju.setRunningLine(getLineDetail());
+			for (Element element : elements) {
+				element.execute(caju, context, syntax);
+			}
+			Value v1 = firstCommand.execute(caju, context, syntax);
+			Value v2 = secondCommand.execute(caju, context, syntax);
+			return operator.test(v1, v2);
+		default:
+			return execute(caju, context, syntax).getBooleanValue();
+		}
+	}
+
 	/**
 	 * Operators.
 	 */
@@ -148,25 +213,23 @@ public class Operation extends Base {
 					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					if (v1.getTypeNumber() == Value.TypeNumber.INTEGER
-							&& v2.getTypeNumber() == Value.TypeNumber.INTEGER) {
-						v.setValue(new Integer(v1.getNumberIntegerValue()
-								+ v2.getNumberIntegerValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.FLOAT)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.FLOAT)) {
-						v.setValue(new Float(v1.getNumberFloatValue()
-								+ v2.getNumberFloatValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.LONG)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.LONG)) {
-						v.setValue(new Long(v1.getNumberLongValue()
-								+ v2.getNumberLongValue()));
-					} else {
-						v.setValue(new Double(v1.getNumberDoubleValue()
-								+ v2.getNumberDoubleValue()));
+					switch (numberType(v1, v2)) {
+					case INTEGER:
+						v.setInt(v1.getNumberIntegerValue()
+								+ v2.getNumberIntegerValue());
+						break;
+					case FLOAT:
+						v.setFloat(v1.getNumberFloatValue()
+								+ v2.getNumberFloatValue());
+						break;
+					case LONG:
+						v.setLong(v1.getNumberLongValue()
+								+ v2.getNumberLongValue());
+						break;
+					default:
+						v.setDouble(v1.getNumberDoubleValue()
+								+ v2.getNumberDoubleValue());
+						break;
 					}
 				} else if (v1.getValue() instanceof Operable
 						&& v2.getValue() instanceof Operable) {
@@ -187,25 +250,23 @@ public class Operation extends Base {
 					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					if (v1.getTypeNumber() == Value.TypeNumber.INTEGER
-							&& v2.getTypeNumber() == Value.TypeNumber.INTEGER) {
-						v.setValue(new Integer(v1.getNumberIntegerValue()
-								- v2.getNumberIntegerValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.FLOAT)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.FLOAT)) {
-						v.setValue(new Float(v1.getNumberFloatValue()
-								- v2.getNumberFloatValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.LONG)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.LONG)) {
-						v.setValue(new Long(v1.getNumberLongValue()
-								- v2.getNumberLongValue()));
-					} else {
-						v.setValue(new Double(v1.getNumberDoubleValue()
-								- v2.getNumberDoubleValue()));
+					switch (numberType(v1, v2)) {
+					case INTEGER:
+						v.setInt(v1.getNumberIntegerValue()
+								- v2.getNumberIntegerValue());
+						break;
+					case FLOAT:
+						v.setFloat(v1.getNumberFloatValue()
+								- v2.getNumberFloatValue());
+						break;
+					case LONG:
+						v.setLong(v1.getNumberLongValue()
+								- v2.getNumberLongValue());
+						break;
+					default:
+						v.setDouble(v1.getNumberDoubleValue()
+								- v2.getNumberDoubleValue());
+						break;
 					}
 				} else if (v1.getType() == Value.Type.OBJECT
 						&& v2.getType() == Value.Type.OBJECT
@@ -222,25 +283,23 @@ public class Operation extends Base {
 					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					if (v1.getTypeNumber() == Value.TypeNumber.INTEGER
-							&& v2.getTypeNumber() == Value.TypeNumber.INTEGER) {
-						v.setValue(new Integer(v1.getNumberIntegerValue()
-								* v2.getNumberIntegerValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.FLOAT)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.FLOAT)) {
-						v.setValue(new Float(v1.getNumberFloatValue()
-								* v2.getNumberFloatValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.LONG)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.LONG)) {
-						v.setValue(new Long(v1.getNumberLongValue()
-								* v2.getNumberLongValue()));
-					} else {
-						v.setValue(new Double(v1.getNumberDoubleValue()
-								* v2.getNumberDoubleValue()));
+					switch (numberType(v1, v2)) {
+					case INTEGER:
+						v.setInt(v1.getNumberIntegerValue()
+								* v2.getNumberIntegerValue());
+						break;
+					case FLOAT:
+						v.setFloat(v1.getNumberFloatValue()
+								* v2.getNumberFloatValue());
+						break;
+					case LONG:
+						v.setLong(v1.getNumberLongValue()
+								* v2.getNumberLongValue());
+						break;
+					default:
+						v.setDouble(v1.getNumberDoubleValue()
+								* v2.getNumberDoubleValue());
+						break;
 					}
 				} else if (v1.getType() == Value.Type.OBJECT
 						&& v2.getType() == Value.Type.OBJECT
@@ -257,25 +316,23 @@ public class Operation extends Base {
 					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					if (v1.getTypeNumber() == Value.TypeNumber.INTEGER
-							&& v2.getTypeNumber() == Value.TypeNumber.INTEGER) {
-						v.setValue(new Integer(v1.getNumberIntegerValue()
-								/ v2.getNumberIntegerValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.FLOAT)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.FLOAT)) {
-						v.setValue(new Float(v1.getNumberFloatValue()
-								/ v2.getNumberFloatValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.LONG)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.LONG)) {
-						v.setValue(new Long(v1.getNumberLongValue()
-								/ v2.getNumberLongValue()));
-					} else {
-						v.setValue(new Double(v1.getNumberDoubleValue()
-								/ v2.getNumberDoubleValue()));
+					switch (numberType(v1, v2)) {
+					case INTEGER:
+						v.setInt(v1.getNumberIntegerValue()
+								/ v2.getNumberIntegerValue());
+						break;
+					case FLOAT:
+						v.setFloat(v1.getNumberFloatValue()
+								/ v2.getNumberFloatValue());
+						break;
+					case LONG:
+						v.setLong(v1.getNumberLongValue()
+								/ v2.getNumberLongValue());
+						break;
+					default:
+						v.setDouble(v1.getNumberDoubleValue()
+								/ v2.getNumberDoubleValue());
+						break;
 					}
 				} else if (v1.getType() == Value.Type.OBJECT
 						&& v2.getType() == Value.Type.OBJECT
@@ -292,25 +349,23 @@ public class Operation extends Base {
 					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					if (v1.getTypeNumber() == Value.TypeNumber.INTEGER
-							&& v2.getTypeNumber() == Value.TypeNumber.INTEGER) {
-						v.setValue(new Integer(v1.getNumberIntegerValue()
-								% v2.getNumberIntegerValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.FLOAT)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.FLOAT)) {
-						v.setValue(new Float(v1.getNumberFloatValue()
-								% v2.getNumberFloatValue()));
-					} else if ((v1.getTypeNumber() == Value.TypeNumber.INTEGER || v1
-							.getTypeNumber() == Value.TypeNumber.LONG)
-							&& (v2.getTypeNumber() == Value.TypeNumber.INTEGER || v2
-									.getTypeNumber() == Value.TypeNumber.LONG)) {
-						v.setValue(new Long(v1.getNumberLongValue()
-								% v2.getNumberLongValue()));
-					} else {
-						v.setValue(new Double(v1.getNumberDoubleValue()
-								% v2.getNumberDoubleValue()));
+					switch (numberType(v1, v2)) {
+					case INTEGER:
+						v.setInt(v1.getNumberIntegerValue()
+								% v2.getNumberIntegerValue());
+						break;
+					case FLOAT:
+						v.setFloat(v1.getNumberFloatValue()
+								% v2.getNumberFloatValue());
+						break;
+					case LONG:
+						v.setLong(v1.getNumberLongValue()
+								% v2.getNumberLongValue());
+						break;
+					default:
+						v.setDouble(v1.getNumberDoubleValue()
+								% v2.getNumberDoubleValue());
+						break;
 					}
 				} else if (v1.getType() == Value.Type.OBJECT
 						&& v2.getType() == Value.Type.OBJECT
@@ -325,108 +380,180 @@ public class Operation extends Base {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
-				v.setValue(v1.getBooleanValue() && v2.getBooleanValue());
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
+				return v1.getBooleanValue() && v2.getBooleanValue();
 			}
 		},
 		OR {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
-				v.setValue(v1.getBooleanValue() || v2.getBooleanValue());
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
+				return v1.getBooleanValue() || v2.getBooleanValue();
 			}
 		},
 		EQUAL {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
 				if (v1.getType() == Value.Type.BOOLEAN
 						&& v2.getType() == Value.Type.BOOLEAN) {
-					v.setValue(v1.getBooleanValue() == v2.getBooleanValue());
+					return v1.getBooleanValue() == v2.getBooleanValue();
 				} else if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() == v2.getNumberValue());
+					return v1.getNumberValue() == v2.getNumberValue();
 				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					v.setValue(v1.getStringValue().equals(v2.getStringValue()));
+					return v1.getStringValue().equals(v2.getStringValue());
 				} else if (v1.getValue() == null || v2.getValue() == null) {
-                                        v.setValue(v1.getValue() == v2.getValue());
-				} else {
-                                        v.setValue(v1.getValue().equals(v2.getValue()));
-                                }
+					return v1.getValue() == v2.getValue();
+				}
+				return v1.getValue().equals(v2.getValue());
 			}
 		},
 		NOT_EQUAL {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
-				if (v1.getType() == Value.Type.BOOLEAN
-						&& v2.getType() == Value.Type.BOOLEAN) {
-					v.setValue(v1.getBooleanValue() != v2.getBooleanValue());
-				} else if (v1.getType() == Value.Type.NUMBER
-						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() != v2.getNumberValue());
-				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					v.setValue(!v1.getStringValue().equals(
-									v2.getStringValue()));
-				} else if (v1.getValue() == null || v2.getValue() == null) {
-                                        v.setValue(v1.getValue() != v2.getValue());
-				} else {
-                                        v.setValue(!v1.getValue().equals(v2.getValue()));
-                                }
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
+				return !EQUAL.test(v1, v2);
 			}
 		},
 		LESS {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() < v2.getNumberValue());
+					return v1.getNumberValue() < v2.getNumberValue();
 				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					v.setValue(v1.getStringValue().compareTo(
-							v2.getStringValue()) < 0);
+					return v1.getStringValue().compareTo(v2.getStringValue()) < 0;
 				}
+				return false;
 			}
 		},
 		GREATER {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() > v2.getNumberValue());
+					return v1.getNumberValue() > v2.getNumberValue();
 				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					v.setValue(v1.getStringValue().compareTo(
-							v2.getStringValue()) > 0);
+					return v1.getStringValue().compareTo(v2.getStringValue()) > 0;
 				}
+				return false;
 			}
 		},
 		LESS_EQUAL {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() <= v2.getNumberValue());
+					return v1.getNumberValue() <= v2.getNumberValue();
 				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					int c = v1.getStringValue().compareTo(v2.getStringValue());
-					v.setValue(c <= 0);
+					return v1.getStringValue().compareTo(v2.getStringValue()) <= 0;
 				}
+				return false;
 			}
 		},
 		GREATER_EQUAL {
 			@Override
 			public void compare(Value v, Value v1, Value v2)
 					throws CajuScriptException {
+				v.setBoolean(test(v1, v2));
+			}
+
+			@Override
+			public boolean test(Value v1, Value v2)
+					throws CajuScriptException {
 				if (v1.getType() == Value.Type.NUMBER
 						&& v2.getType() == Value.Type.NUMBER) {
-					v.setValue(v1.getNumberValue() >= v2.getNumberValue());
+					return v1.getNumberValue() >= v2.getNumberValue();
 				} else if ((v1.getType() == Value.Type.STRING || (v2.getType() == Value.Type.STRING))) {
-					int c = v1.getStringValue().compareTo(v2.getStringValue());
-					v.setValue(c >= 0);
+					return v1.getStringValue().compareTo(v2.getStringValue()) >= 0;
 				}
+				return false;
 			}
 		};
 		public abstract void compare(Value v, Value v1, Value v2)
 				throws CajuScriptException;
+
+		/**
+		 * Result of the comparison or of the logical operator, without write
+		 * a value.
+		 * 
+		 * @param v1
+		 *            First value
+		 * @param v2
+		 *            Second value
+		 * @return Result
+		 * @throws org.cajuscript.CajuScriptException
+		 *             Errors ocurred on the operation
+		 */
+		public boolean test(Value v1, Value v2) throws CajuScriptException {
+			Value v = new Value(null, null, null);
+			compare(v, v1, v2);
+			return v.getBooleanValue();
+		}
+
+		/**
+		 * Type of number of the result of an arithmetic operation.
+		 * 
+		 * @param v1
+		 *            First value
+		 * @param v2
+		 *            Second value
+		 * @return Type of number
+		 */
+		private static Value.TypeNumber numberType(Value v1, Value v2) {
+			Value.TypeNumber t1 = v1.getTypeNumber();
+			Value.TypeNumber t2 = v2.getTypeNumber();
+			if (t1 == Value.TypeNumber.INTEGER) {
+				return t2 == Value.TypeNumber.DOUBLE ? Value.TypeNumber.DOUBLE : t2;
+			} else if (t2 == Value.TypeNumber.INTEGER || t1 == t2) {
+				return t1;
+			}
+			return Value.TypeNumber.DOUBLE;
+		}
 	}
 }
@@ -0,0 +1,313 @@
+/*
+ * Optimizer.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CajuScriptException;
+import org.cajuscript.Syntax;
+import org.cajuscript.Value;
+
+/**
+ * Optimization of the elements of a script or function, done after the parse
+ * and before the {@link Scope} is resolved, so the interpreter and the
+ * compiler execute the elements already optimized.
+ * <p>The operations with only literals are folded to a literal, the
+ * temporary values of the groups and maths that are literals are replaced
+ * in the commands that use them, and the ifs and loops with literal
+ * conditions are removed, or replaced by the statements of the if.</p>
+ * <p>Only results that are numbers or booleans are folded, and only when
+ * the literal of the result is read again as the same type and value.</p>
+ * @author eduveks
+ */
+public class Optimizer {
+    private final Map<String, Value> constants;
+    private final Syntax syntax;
+    private final Map<String, Integer> assignments = new HashMap<String, Integer>();
+    private final Set<String> pinned = new HashSet<String>();
+    private final Map<String, String> literals = new HashMap<String, String>();
+
+    private Optimizer(Map<String, Value> constants, Syntax syntax) {
+        this.constants = constants;
+        this.syntax = syntax;
+    }
+
+    /**
+     * Optimize the element and all childs elements.
+     * @param element Root element of the script or the function
+     * @param constants Constants of the string literals of the script
+     * @param syntax Syntax
+     * @throws org.cajuscript.CajuScriptException Errors loading the literals
+     */
+    public static void optimize(Base element, Map<String, Value> constants, Syntax syntax) throws CajuScriptException {
+        Optimizer optimizer = new Optimizer(constants, syntax);
+        optimizer.assignments(element);
+        if (!optimizer.assignments.isEmpty()) {
+            optimizer.pin(element);
+        }
+        optimizer.optimize(element);
+    }
+
+    /**
+     * Count the assignments of each temporary value.
+     */
+    private void assignments(Element element) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Variable) {
+            String key = ((Variable) element).getKey();
+            if (Scope.isRegister(key)) {
+                Integer count = assignments.get(key);
+                assignments.put(key, count == null ? 1 : count + 1);
+            }
+        }
+        for (Element e : childs(element)) {
+            assignments(e);
+        }
+    }
+
+    /**
+     * Temporary values used inside of other commands, like the arguments of
+     * the functions, cannot be replaced.
+     */
+    private void pin(Element element) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Command) {
+            pin(((Command) element).getCommand());
+        } else if (element instanceof Variable) {
+            pin(((Variable) element).getKey());
+        }
+        for (Element e : childs(element)) {
+            pin(e);
+        }
+    }
+
+    private void pin(String script) {
+        if (script.indexOf(CajuScript.CAJU_VARS) == -1 || assignments.containsKey(script)) {
+            return;
+        }
+        for (String key : assignments.keySet()) {
+            if (script.indexOf(key) > -1) {
+                pinned.add(key);
+            }
+        }
+    }
+
+    private void optimize(Element element) throws CajuScriptException {
+        if (element == null) {
+            return;
+        }
+        statements(element.getElements());
+        if (element instanceof Variable) {
+            Variable variable = (Variable) element;
+            variable.setValue(value(variable.getValue()));
+        } else if (element instanceof Return) {
+            Return _return = (Return) element;
+            _return.setValue(value(_return.getValue()));
+        } else if (element instanceof If) {
+            optimize(((If) element).getCondition());
+        } else if (element instanceof Loop) {
+            optimize(((Loop) element).getCondition());
+        } else if (element instanceof TryCatch) {
+            TryCatch tryCatch = (TryCatch) element;
+            optimize(tryCatch.getTry());
+            optimize(tryCatch.getCatch());
+            optimize(tryCatch.getFinally());
+        }
+    }
+
+    private void statements(List<Element> elements) throws CajuScriptException {
+        for (int i = 0; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            optimize(element);
+            if (element instanceof Variable && isReplaceable((Variable) element)) {
+                Variable variable = (Variable) element;
+                literals.put(variable.getKey(), ((Command) variable.getValue()).getCommand());
+                elements.remove(i--);
+            } else if (element instanceof IfGroup) {
+                List<Element> ifs = element.getElements();
+                for (int j = 0; j < ifs.size(); j++) {
+                    Boolean condition = condition(((If) ifs.get(j)).getCondition());
+                    if (condition == Boolean.FALSE) {
+                        ifs.remove(j--);
+                    } else if (condition == Boolean.TRUE) {
+                        ifs.subList(j + 1, ifs.size()).clear();
+                    }
+                }
+                if (ifs.isEmpty()) {
+                    elements.remove(i--);
+                } else if (condition(((If) ifs.get(0)).getCondition()) == Boolean.TRUE) {
+                    List<Element> statements = ifs.get(0).getElements();
+                    elements.remove(i);
+                    elements.addAll(i, statements);
+                    i += statements.size() - 1;
+                }
+            } else if (element instanceof Loop && condition(((Loop) element).getCondition()) == Boolean.FALSE) {
+                elements.remove(i--);
+            }
+        }
+    }
+
+    private Element value(Element element) throws CajuScriptException {
+        if (element instanceof Command) {
+            Command command = (Command) element;
+            String literal = literals.get(command.getCommand());
+            if (literal == null) {
+                return command;
+            }
+            Command c = new Command(command.getLineDetail());
+            c.setType(command.getType());
+            c.setCommand(literal);
+            return c;
+        } else if (element instanceof Operation) {
+            Operation operation = (Operation) element;
+            statements(operation.getElements());
+            Element first = value(operation.getFirstCommand());
+            Element second = value(operation.getSecondCommand());
+            operation.setCommands(first, operation.getOperator(), second);
+            if (!operation.getElements().isEmpty()) {
+                return operation;
+            }
+            Value v1 = constant(first);
+            Value v2 = v1 == null ? null : constant(second);
+            if (v2 == null) {
+                return operation;
+            }
+            Value v = new Value(null, null, syntax);
+            try {
+                operation.getOperator().compare(v, v1, v2);
+            } catch (Exception e) {
+                return operation;
+            }
+            String literal = literal(v);
+            if (literal == null) {
+                return operation;
+            }
+            Command c = new Command(operation.getLineDetail());
+            c.setCommand(literal);
+            return c;
+        }
+        optimize(element);
+        return element;
+    }
+
+    /**
+     * Value of the command when is a literal without type.
+     */
+    private Value constant(Element element) throws CajuScriptException {
+        if (!(element instanceof Command)) {
+            return null;
+        }
+        Command command = (Command) element;
+        if (command.getType().length() != 0 || !command.getElements().isEmpty()) {
+            return null;
+        }
+        Value value = constants.get(command.getCommand());
+        return value != null ? value : Value.literal(command.getCommand(), syntax);
+    }
+
+    /**
+     * Result of the condition when is a literal boolean.
+     */
+    private Boolean condition(Element element) throws CajuScriptException {
+        if (element instanceof Variable) {
+            Variable variable = (Variable) element;
+            if (variable.getKey().length() != 0 || variable.getType().length() != 0
+                    || !variable.getElements().isEmpty()) {
+                return null;
+            }
+            element = variable.getValue();
+        }
+        Value value = constant(element);
+        if (value == null || value.getType() != Value.Type.BOOLEAN) {
+            return null;
+        }
+        return Boolean.valueOf(value.getBooleanValue());
+    }
+
+    /**
+     * Literal of the number or boolean, only if is read as the same value.
+     */
+    private String literal(Value value) throws CajuScriptException {
+        String literal;
+        if (value.getType() == Value.Type.BOOLEAN) {
+            return value.getBooleanValue() ? "true" : "false";
+        } else if (value.getType() != Value.Type.NUMBER) {
+            return null;
+        }
+        switch (value.getTypeNumber()) {
+            case INTEGER:
+                literal = Integer.toString(value.getNumberIntegerValue());
+                break;
+            case LONG:
+                literal = Long.toString(value.getNumberLongValue());
+                break;
+            case FLOAT:
+                literal = Float.toString(value.getNumberFloatValue());
+                break;
+            default:
+                literal = Double.toString(value.getNumberDoubleValue());
+                break;
+        }
+        Value read = Value.literal(literal, syntax);
+        if (read == null || read.getType() != Value.Type.NUMBER || read.getTypeNumber() != value.getTypeNumber()
+                || !read.getValue().equals(value.getValue())) {
+            return null;
+        }
+        return literal;
+    }
+
+    private boolean isReplaceable(Variable variable) throws CajuScriptException {
+        String key = variable.getKey();
+        return Scope.isRegister(key) && variable.getType().length() == 0 && variable.getElements().isEmpty()
+                && assignments.get(key) == 1 && !pinned.contains(key) && constant(variable.getValue()) != null;
+    }
+
+    private static List<Element> childs(Element element) {
+        List<Element> childs = new ArrayList<Element>(element.getElements());
+        if (element instanceof Variable) {
+            childs.add(((Variable) element).getValue());
+        } else if (element instanceof Operation) {
+            childs.add(((Operation) element).getFirstCommand());
+            childs.add(((Operation) element).getSecondCommand());
+        } else if (element instanceof If) {
+            childs.add(((If) element).getCondition());
+        } else if (element instanceof Loop) {
+            childs.add(((Loop) element).getCondition());
+        } else if (element instanceof Return) {
+            childs.add(((Return) element).getValue());
+        } else if (element instanceof TryCatch) {
+            TryCatch tryCatch = (TryCatch) element;
+            childs.add(tryCatch.getError());
+            childs.add(tryCatch.getTry());
+            childs.add(tryCatch.getCatch());
+            childs.add(tryCatch.getFinally());
+        }
+        return childs;
+    }
+}
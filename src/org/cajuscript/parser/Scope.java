@@ -0,0 +1,366 @@
+/*
+ * Scope.java
+ *
+ * This file is part of CajuScript.
+ *
+ * CajuScript is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3, or (at your option)
+ * any later version.
+ *
+ * CajuScript is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with CajuScript.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cajuscript.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cajuscript.CajuScript;
+import org.cajuscript.CajuScriptException;
+import org.cajuscript.Syntax;
+import org.cajuscript.Value;
+
+/**
+ * Variables slots of a script or function.
+ * <p>After the parse all variables defined in the script, or in the function,
+ * receive a slot index and the elements that use the variables are linked to
+ * this index, so in the execution the {@link org.cajuscript.Context} load the
+ * variables by the index in an array.</p>
+ * <p>The temporary values of the expressions, the groups, the maths and the
+ * values of the commands and operations, are not variables, receive a
+ * register index and are kept only in the registers of the frame.</p>
+ * <p>The constants of the string literals of the script are shared by the
+ * scopes of the script and of its functions.</p>
+ * @author eduveks
+ */
+public class Scope implements java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+    private Map<String, Integer> slots = new HashMap<String, Integer>();
+    private List<String> names = new ArrayList<String>();
+    private Map<String, Integer> registers = new HashMap<String, Integer>();
+    private Map<String, Value> constants = Collections.<String, Value>emptyMap();
+
+    /**
+     * Create new Scope.
+     */
+    public Scope() {
+
+    }
+
+    /**
+     * Create new Scope with the slots of the variables and the registers of
+     * the temporary values, in the order of the index, used by the scripts
+     * compiled to load the variables by the same slots of the parse.
+     * @param names Variables names
+     * @param registers Temporary values names
+     */
+    public Scope(String[] names, String[] registers) {
+        for (String name : names) {
+            addSlot(name);
+        }
+        for (String register : registers) {
+            addRegister(register);
+        }
+    }
+
+    /**
+     * Resolve all variables of the element and childs elements.
+     * @param element Root element of the script or the function
+     * @param constants Constants of the string literals of the script
+     * @param syntax Syntax
+     * @return Scope resolved
+     * @throws org.cajuscript.CajuScriptException Errors loading the literals
+     */
+    public static Scope resolve(Base element, Map<String, Value> constants, Syntax syntax) throws CajuScriptException {
+        Scope scope = new Scope();
+        scope.constants = constants;
+        if (element instanceof Function) {
+            for (String param : ((Function) element).getParameters()) {
+                if (param.length() != 0) {
+                    scope.addSlot(param);
+                }
+            }
+        }
+        scope.define(element, syntax);
+        scope.link(element, syntax);
+        target(element, new ArrayList<Loop>());
+        return scope;
+    }
+
+    /**
+     * Get slot index of the variable.
+     * @param name Variable name
+     * @return Slot index or -1 if the variable is not in this scope.
+     */
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot.intValue();
+    }
+
+    /**
+     * Get variable name of the slot.
+     * @param slot Slot index
+     * @return Variable name
+     */
+    public String getName(int slot) {
+        return names.get(slot);
+    }
+
+    /**
+     * Number of slots.
+     * @return Size
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * All slots, variable name and index.
+     * @return Slots, can not be modified
+     */
+    public Map<String, Integer> getSlots() {
+        return Collections.unmodifiableMap(slots);
+    }
+
+    /**
+     * Get register index of the temporary value.
+     * @param name Temporary value name
+     * @return Register index or -1 if is not a register of this scope.
+     */
+    public int getRegister(String name) {
+        Integer register = registers.get(name);
+        return register == null ? -1 : register.intValue();
+    }
+
+    /**
+     * Get temporary value name of the register.
+     * @param register Register index
+     * @return Temporary value name or null if is not a register of this scope.
+     */
+    public String getRegisterName(int register) {
+        for (Map.Entry<String, Integer> entry : registers.entrySet()) {
+            if (entry.getValue().intValue() == register) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of registers.
+     * @return Size
+     */
+    public int registers() {
+        return registers.size();
+    }
+
+    /**
+     * Get constant of the string literal.
+     * @param key Static string key
+     * @return Value of the constant, must not be changed, or null if is not
+     *         a constant of this scope
+     */
+    public Value getConstant(String key) {
+        return constants.get(key);
+    }
+
+    /**
+     * If the name is of a temporary value of the expressions.
+     * @param name Name
+     * @return Is a temporary value
+     */
+    public static boolean isRegister(String name) {
+        return name.startsWith(CajuScript.CAJU_VARS_GROUP) || name.startsWith(CajuScript.CAJU_VARS_MATH);
+    }
+
+    Map<String, Integer> slots() {
+        return slots;
+    }
+
+    int addSlot(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = Integer.valueOf(names.size());
+            slots.put(name, slot);
+            names.add(name);
+        }
+        return slot.intValue();
+    }
+
+    int addRegister(String name) {
+        Integer register = registers.get(name);
+        if (register == null) {
+            register = Integer.valueOf(registers.size());
+            registers.put(name, register);
+        }
+        return register.intValue();
+    }
+
+    private void define(Element element, Syntax syntax) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Variable) {
+            Variable variable = (Variable) element;
+            if (isRegister(variable.getKey())) {
+                addRegister(variable.getKey());
+            } else if (isLocal(variable, syntax)) {
+                addSlot(variable.getKey());
+            }
+            define(variable.getValue(), syntax);
+        } else if (element instanceof Command) {
+            Command command = (Command) element;
+            addRegister(command.getValueKey());
+        } else if (element instanceof Operation) {
+            Operation operation = (Operation) element;
+            addRegister(operation.getValueKey());
+            define(operation.getFirstCommand(), syntax);
+            define(operation.getSecondCommand(), syntax);
+        } else if (element instanceof If) {
+            define(((If) element).getCondition(), syntax);
+        } else if (element instanceof Loop) {
+            define(((Loop) element).getCondition(), syntax);
+        } else if (element instanceof Return) {
+            define(((Return) element).getValue(), syntax);
+        } else if (element instanceof TryCatch) {
+            TryCatch tryCatch = (TryCatch) element;
+            addRegister(tryCatch.getErrorValueKey());
+            define(tryCatch.getError(), syntax);
+            define(tryCatch.getTry(), syntax);
+            define(tryCatch.getCatch(), syntax);
+            define(tryCatch.getFinally(), syntax);
+        }
+        for (Element e : element.getElements()) {
+            define(e, syntax);
+        }
+    }
+
+    private void link(Element element, Syntax syntax) throws CajuScriptException {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Variable) {
+            Variable variable = (Variable) element;
+            if (isRegister(variable.getKey())) {
+                variable.setRegister(getRegister(variable.getKey()));
+            } else if (isLocal(variable, syntax)) {
+                variable.setSlot(getSlot(variable.getKey()));
+            }
+            link(variable.getValue(), syntax);
+        } else if (element instanceof Command) {
+            Command command = (Command) element;
+            command.setValueRegister(getRegister(command.getValueKey()));
+            if (registers.containsKey(command.getCommand())) {
+                command.setRegister(getRegister(command.getCommand()));
+            } else if (constants.containsKey(command.getCommand())) {
+                command.setLiteral(constants.get(command.getCommand()));
+            } else if (isVariable(command.getCommand(), syntax)) {
+                command.setSlot(getSlot(command.getCommand()));
+            } else {
+                command.setLiteral(Value.literal(command.getCommand(), syntax));
+            }
+        } else if (element instanceof Operation) {
+            Operation operation = (Operation) element;
+            operation.setValueRegister(getRegister(operation.getValueKey()));
+            link(operation.getFirstCommand(), syntax);
+            link(operation.getSecondCommand(), syntax);
+        } else if (element instanceof If) {
+            link(((If) element).getCondition(), syntax);
+        } else if (element instanceof Loop) {
+            link(((Loop) element).getCondition(), syntax);
+        } else if (element instanceof Return) {
+            link(((Return) element).getValue(), syntax);
+        } else if (element instanceof TryCatch) {
+            TryCatch tryCatch = (TryCatch) element;
+            tryCatch.setErrorValueRegister(getRegister(tryCatch.getErrorValueKey()));
+            link(tryCatch.getError(), syntax);
+            link(tryCatch.getTry(), syntax);
+            link(tryCatch.getCatch(), syntax);
+            link(tryCatch.getFinally(), syntax);
+        }
+        for (Element e : element.getElements()) {
+            link(e, syntax);
+        }
+    }
+
+    /**
+     * Index the loops by level and point the breaks and continues to the
+     * index of the loop with the label, or of the nearest loop.
+     */
+    private static void target(Element element, List<Loop> loops) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof Break) {
+            Break b = (Break) element;
+            b.setTarget(target(loops, b.getLabel()));
+        } else if (element instanceof Continue) {
+            Continue c = (Continue) element;
+            c.setTarget(target(loops, c.getLabel()));
+        } else if (element instanceof TryCatch) {
+            TryCatch tryCatch = (TryCatch) element;
+            target(tryCatch.getTry(), loops);
+            target(tryCatch.getCatch(), loops);
+            target(tryCatch.getFinally(), loops);
+        }
+        boolean isLoop = element instanceof Loop;
+        if (isLoop) {
+            loops.add((Loop) element);
+            ((Loop) element).setIndex(loops.size());
+        }
+        for (Element e : element.getElements()) {
+            target(e, loops);
+        }
+        if (isLoop) {
+            loops.remove(loops.size() - 1);
+        }
+    }
+
+    private static int target(List<Loop> loops, String label) {
+        for (int i = loops.size() - 1; i >= 0; i--) {
+            if (label.length() == 0 || label.equals(loops.get(i).getLabel())) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private boolean isLocal(Variable variable, Syntax syntax) {
+        String key = variable.getKey();
+        return key.length() != 0 && !key.startsWith(CajuScript.CAJU_VARS_STATIC_STRING)
+                && !variable.isKeyRootContext(syntax);
+    }
+
+    /**
+     * If the command is only the name of a variable.
+     */
+    private boolean isVariable(String command, Syntax syntax) {
+        if (command.length() == 0 || command.startsWith(CajuScript.CAJU_VARS_STATIC_STRING)
+                || !Character.isJavaIdentifierStart(command.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < command.length(); i++) {
+            if (!Character.isJavaIdentifierPart(command.charAt(i))) {
+                return false;
+            }
+        }
+        if (syntax.matcherPosition(command, syntax.getRootContext()).getStart() > -1
+                || syntax.matcherPosition(command, syntax.getFunctionCallPathSeparator()).getStart() > -1
+                || syntax.matcherPosition(command, syntax.getFunctionCallParametersBegin()).getStart() > -1
+                || syntax.matcherPosition(command, syntax.getArrayCallParametersBegin()).getStart() > -1
+                || syntax.matcherEquals(command, syntax.getNull())
+                || command.equalsIgnoreCase("true") || command.equalsIgnoreCase("false")) {
+            return false;
+        }
+        return !Value.isNumber(command);
+    }
+}
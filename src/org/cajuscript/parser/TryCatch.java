@@ -36,6 +36,7 @@ public class TryCatch extends Base {
 	private Element _catch = null;
 	private Element _finally = null;
 	private String errorValueKey;
+	private int errorValueRegister = -1;
 
 	/**
 	 * Create new TryCatch.
@@ -49,6 +50,25 @@ public class TryCatch extends Base {
 				.concat(Integer.toString(this.hashCode()));
 	}
 
+	/**
+	 * Get key of the value of the error.
+	 * 
+	 * @return Key
+	 */
+	public String getErrorValueKey() {
+		return errorValueKey;
+	}
+
+	/**
+	 * Set register of the value of the error.
+	 * 
+	 * @param errorValueRegister
+	 *            Register index
+	 */
+	public void setErrorValueRegister(int errorValueRegister) {
+		this.errorValueRegister = errorValueRegister;
+	}
+
 	/**
 	 * Get variable of error.
 	 * 
@@ -143,7 +163,8 @@ public class TryCatch extends Base {
 	public Value execute(CajuScript caju, Context context, Syntax syntax)
 			throws CajuScriptException {
 		caju.setRunningLine(getLineDetail());
-		Value errorValue = context.getVar(errorValueKey);
+		Value errorValue = errorValueRegister > -1 ? context
+				.getRegister(errorValueRegister) : context.getVar(errorValueKey);
 		if (errorValue != null) {
 			errorValue.setValue(null);
 		}
@@ -152,10 +173,18 @@ public class TryCatch extends Base {
 		} catch (Exception e) {
 			if (errorValue == null) {
 				errorValue = caju.toValue(e, context, syntax);
-				context.setVar(errorValueKey, errorValue);
+				if (errorValueRegister > -1) {
+					context.setRegister(errorValueRegister, errorValue);
+				} else {
+					context.setVar(errorValueKey, errorValue);
+				}
 			}
 			errorValue.setValue(e);
-			context.setVar(_error.getKey(), errorValue);
+			if (_error.getSlot() > -1) {
+				context.setVar(_error.getSlot(), errorValue);
+			} else {
+				context.setVar(_error.getKey(), errorValue);
+			}
 			return _catch.execute(caju, context, syntax);
 		} finally {
 			return _finally.execute(caju, context, syntax);
@@ -34,6 +34,8 @@ public class Variable extends Base {
     private String type = "";
     private String key = "";
     private Element value = null;
+    private int slot = -1;
+    private int register = -1;
     
     /**
      * Create new Variable.
@@ -91,6 +93,38 @@ public class Variable extends Base {
         this.value = value;
     }
 
+    /**
+     * Get slot of the variable in the scope.
+     * @return Slot index, -1 if is not resolved
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Set slot of the variable in the scope.
+     * @param slot Slot index
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Get register of the variable when is a temporary value.
+     * @return Register index, -1 if is not resolved
+     */
+    public int getRegister() {
+        return register;
+    }
+
+    /**
+     * Set register of the variable when is a temporary value.
+     * @param register Register index
+     */
+    public void setRegister(int register) {
+        this.register = register;
+    }
+
     /**
      * Is the key to root context?
      * @param syntax Syntax
@@ -141,14 +175,39 @@ public class Variable extends Base {
         if (type.length() != 0) {
             v.setClassType(type);
         }
-        if (key.length() != 0) {
+        if (slot > -1) {
+            context.setVar(slot, v);
+        } else if (register > -1) {
+            context.setRegister(register, v);
+        } else if (key.length() != 0) {
             SyntaxPosition syntaxPosition = syntax.matcherPosition(key, syntax.getRootContext());
             if (syntaxPosition.getStart() == 0) {
-                caju.setVar(key.substring(syntaxPosition.getEnd()), v);
+                caju.setVar(key.substring(syntaxPosition.getEnd()), context == caju.getContext() ? v : v.clone());
             } else {
                 context.setVar(key, v);
             }
         }
         return v;
     }
+
+    /**
+     * Executed this element as condition, when the variable is only the
+     * condition the value is not written.
+     * @param caju CajuScript
+     * @param context Context
+     * @param syntax Syntax
+     * @return Result of the condition
+     * @throws org.cajuscript.CajuScriptException Errors ocurred on execution
+     */
+    @Override
+    public boolean test(CajuScript caju, Context context, Syntax syntax) throws CajuScriptException {
+        if (key.length() != 0 || type.length() != 0) {
+            return super.test(caju, context, syntax);
+        }
+        caju.setRunningLine(getLineDetail());
+        for (Element element : elements) {
+            element.execute(caju, context, syntax);
+        }
+        return value.test(caju, context, syntax);
+    }
 }
@@ -19,8 +19,11 @@
 
 package org.cajuscript;
 
+import java.io.File;
 import java.util.Set;
+import org.cajuscript.parser.Base;
 import org.cajuscript.parser.Function;
+import org.cajuscript.parser.LineDetail;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -2384,4 +2387,944 @@ public class CajuScriptTest {
             fail("enum2s is "+ caju.get("enum2s") +". Need be 11!");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test of lexer.
+     */
+    @Test
+    public void lexer() throws CajuScriptException {
+        System.out.println("lexer");
+        CajuScript caju = new CajuScript();
+        String script = "";
+        script += "-- comment; x = 1\r\n";
+        script += "a = 'x;y'; b = \"it's\";\n";
+        script += "\tc = 0; c < 2 @ c += 1\n";
+        script += "@";
+        java.util.List<org.cajuscript.parser.LineDetail> lines = new org.cajuscript.parser.Lexer(caju, script).statements(caju.getSyntax(), null);
+        String[] contents = new String[] {"a = ", "b = ", "c = 0", "c < 2 @", "c += 1", "@"};
+        int[] numbers = new int[] {2, 2, 3, 3, 3, 4};
+        int[] columns = new int[] {1, 12, 2, 9, 17, 1};
+        assertEquals(contents.length, lines.size());
+        for (int i = 0; i < contents.length; i++) {
+            assertTrue(lines.get(i).getContent(), lines.get(i).getContent().startsWith(contents[i]));
+            assertEquals(numbers[i], lines.get(i).getNumber());
+            assertEquals(columns[i], lines.get(i).getColumn());
+        }
+        caju.eval(script);
+        assertEquals("x;y", caju.get("a"));
+        assertEquals("it's", caju.get("b"));
+        assertEquals(2, caju.get("c"));
+        assertFalse(caju.exists("x"));
+    }
+
+    /**
+     * Test of syntax operators.
+     */
+    @Test
+    public void syntaxOperators() throws CajuScriptException {
+        System.out.println("syntaxOperators");
+        Syntax syntax = new Syntax();
+        SyntaxPosition position = syntax.firstOperatorConditional("a + 1 < = b");
+        assertEquals(6, position.getStart());
+        assertEquals(9, position.getEnd());
+        assertEquals(org.cajuscript.parser.Operation.Operator.LESS_EQUAL, position.getOperator());
+        position = syntax.lastOperatorMathematic("1 + 2 * 3 - 4 / 5");
+        assertEquals(14, position.getStart());
+        assertEquals(org.cajuscript.parser.Operation.Operator.DIVISION, position.getOperator());
+        assertEquals(-1, syntax.lastOperatorLogical("a = b").getStart());
+        position = new SyntaxPosition(syntax);
+        assertTrue(syntax.firstOperatorMathematic("x = 10 - 2", 5, 10, position));
+        assertEquals(7, position.getStart());
+        assertEquals("-", position.getAllContent());
+        assertFalse(syntax.firstOperatorMathematic("x = 10 - 2", 0, 7, position));
+        syntax.setOperatorAnd(java.util.regex.Pattern.compile("\\s+and\\s+"));
+        position = syntax.lastOperatorLogical("a and b | c and d");
+        assertEquals(11, position.getStart());
+        assertEquals(org.cajuscript.parser.Operation.Operator.AND, position.getOperator());
+        StringBuilder script = new StringBuilder("x = 0");
+        for (int i = 0; i < 100; i++) {
+            script.append(" + 1");
+        }
+        CajuScript caju = new CajuScript();
+        caju.eval(script.toString());
+        assertEquals(100, caju.get("x"));
+    }
+
+    /**
+     * Test of variables resolved in slots.
+     */
+    @Test
+    public void scopeSlots() throws CajuScriptException {
+        System.out.println("scopeSlots");
+        CajuScript caju = new CajuScript();
+        caju.set("base", 10);
+        String script = "";
+        script += "fib n #";
+        script += "    r = n;";
+        script += "    n > 1 ?";
+        script += "        r = fib(n - 1) + fib(n - 2);";
+        script += "    ?;";
+        script += "    ~ r;";
+        script += "#;";
+        script += "add x #";
+        script += "    ~ x + base;";
+        script += "#;";
+        script += "i = 0; s = 0;";
+        script += "i < 5 @";
+        script += "    s += add(i);";
+        script += "    i += 1;";
+        script += "@;";
+        script += "f = fib(10);";
+        caju.eval(script);
+        assertEquals(60, caju.get("s"));
+        assertEquals(55, caju.get("f"));
+        assertFalse(caju.exists("r"));
+        assertFalse(caju.exists("n"));
+        caju.set("base", 0);
+        caju.eval(script);
+        assertEquals(10, caju.get("s"));
+        org.cajuscript.parser.Scope scope = caju.getFunc("fib").getScope();
+        assertEquals(0, scope.getSlot("n"));
+        assertTrue(scope.getSlot("r") > 0);
+        assertEquals(-1, scope.getSlot("base"));
+    }
+
+    /**
+     * Test of numbers defined without boxing.
+     */
+    @Test
+    public void valueTypedNumbers() throws CajuScriptException {
+        System.out.println("valueTypedNumbers");
+        Value value = new Value();
+        value.setInt(3);
+        assertEquals(Value.TypeNumber.INTEGER, value.getTypeNumber());
+        assertEquals("3", value.getStringValue());
+        assertEquals(Integer.valueOf(3), value.getValue());
+        value.setLong(5000000000L);
+        assertEquals(Long.valueOf(5000000000L), value.getValue());
+        value.setDouble(0.1d);
+        assertEquals(0.1d, value.getNumberDoubleValue(), 0d);
+        value.setValue(Double.valueOf(1.5e300));
+        assertEquals(1.5e300, value.getNumberDoubleValue(), 0d);
+        Value copy = new Value();
+        copy.copyValue(value);
+        assertEquals(Value.TypeNumber.DOUBLE, copy.getTypeNumber());
+        assertEquals(Double.valueOf(1.5e300), copy.getValue());
+        CajuScript caju = new CajuScript();
+        caju.eval("i = 0; s = 0; l = 4294967293; f = 0.5; i < 10 @ s += i * 2; f += 1; i += 1; @; l += 1;");
+        assertEquals(90, caju.get("s"));
+        assertEquals(4294967294L, caju.get("l"));
+        assertEquals(10.5f, caju.get("f"));
+        assertEquals(10, caju.get("i"));
+    }
+
+    /**
+     * Test of Java invocations cached by call site.
+     */
+    @Test
+    public void inlineCache() throws CajuScriptException {
+        System.out.println("inlineCache");
+        CajuScript caju = new CajuScript();
+        java.util.List<Object> objects = new java.util.ArrayList<Object>();
+        objects.add(new java.util.ArrayList<Object>());
+        objects.add(new java.util.LinkedList<Object>());
+        objects.add(new java.util.HashSet<Object>());
+        caju.set("objects", objects);
+        String script = "";
+        script += "i = 0; m = 0;";
+        script += "i < 9 @";
+        script += "    o = objects.get(i % 3);";
+        script += "    o.add(i);";
+        script += "    m = java.lang.Math.max(m, i * 0.5);";
+        script += "    i += 1;";
+        script += "@;";
+        script += "s = java.lang.String.valueOf(o.size());";
+        caju.eval(script);
+        assertEquals(3, ((java.util.Collection<?>)objects.get(0)).size());
+        assertEquals(3, ((java.util.Collection<?>)objects.get(1)).size());
+        assertEquals(3, ((java.util.Collection<?>)objects.get(2)).size());
+        assertEquals(4.0d, ((Number)caju.get("m")).doubleValue(), 0d);
+        assertEquals("3", caju.get("s"));
+        org.cajuscript.cmd.InlineCache cache = new org.cajuscript.cmd.InlineCache();
+        Object[] values = new Object[] {Integer.valueOf(1), Double.valueOf(2)};
+        assertNull(cache.find(null, values));
+        java.lang.invoke.MethodHandle handle = null;
+        for (java.lang.reflect.Method method : Math.class.getMethods()) {
+            if (method.getName().equals("max") && method.getParameterTypes()[0] == double.class) {
+                handle = cache.add(caju, null, values, method);
+            }
+        }
+        assertSame(handle, cache.find(null, values));
+        assertNull(cache.find(null, new Object[] {Double.valueOf(1), Double.valueOf(2)}));
+    }
+
+    /**
+     * Test of the script cache.
+     */
+    @Test
+    public void scriptCache() throws CajuScriptException {
+        System.out.println("scriptCache");
+        ScriptCache defaultCache = CajuScript.getScriptCache();
+        DefaultScriptCache cache = new DefaultScriptCache(2);
+        CajuScript.setScriptCache(cache);
+        try {
+            CajuScript caju = new CajuScript();
+            caju.eval("caju.cache: a; x = 1;");
+            caju.eval("caju.cache: a; x = 1;");
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+            caju.eval("caju.cache: a; x = 2;");
+            assertEquals(2, caju.get("x"));
+            assertEquals(2, cache.getMisses());
+            caju.eval("caju.cache: b; y = 1;");
+            cache.get("a", "caju.cache: a; x = 2;");
+            caju.eval("caju.cache: c; z = 1;");
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictions());
+            assertNull(cache.get("b", "caju.cache: b; y = 1;"));
+            assertNotNull(cache.get("a", "caju.cache: a; x = 2;"));
+        } finally {
+            CajuScript.setScriptCache(defaultCache);
+        }
+    }
+
+    /**
+     * Test of the same cached script executed by many threads.
+     */
+    @Test
+    public void scriptCacheConcurrent() throws Exception {
+        System.out.println("scriptCacheConcurrent");
+        final String script = "caju.cache: concurrent; s = 0; i = 0; i < n @ s += i; i += 1; @; r = \"r\" + s;";
+        Thread[] threads = new Thread[8];
+        final Object[] results = new Object[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int n = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int x = 0; x < 50; x++) {
+                            CajuScript caju = new CajuScript();
+                            caju.set("n", n * 10);
+                            caju.eval(script);
+                            results[n] = caju.get("r");
+                        }
+                    } catch (Exception e) {
+                        results[n] = e;
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            int n = t * 10;
+            assertEquals("r" + (n * (n - 1) / 2), results[t]);
+        }
+    }
+
+    /**
+     * Test of compile.
+     */
+    @Test
+    public void compile() throws Exception {
+        System.out.println("compile");
+        CajuScript caju = new CajuScript();
+        CompiledCajuScript script = caju.compile("add a, b # ~ a + b; #; x = \"x\" + add(a, b);");
+        for (int i = 0; i < 3; i++) {
+            CajuScript other = new CajuScript();
+            other.set("a", i);
+            other.set("b", 10);
+            script.eval(other);
+            assertEquals("x" + (i + 10), other.get("x"));
+        }
+        assertFalse(caju.exists("x"));
+        javax.script.ScriptEngine engine = new CajuScriptEngine();
+        javax.script.CompiledScript compiled = ((javax.script.Compilable) engine).compile("y = a * 2;");
+        javax.script.Bindings bindings = engine.createBindings();
+        bindings.put("a", 21);
+        bindings.put("y", null);
+        compiled.eval(bindings);
+        assertEquals(42, bindings.get("y"));
+    }
+
+    /**
+     * Test of invokeFunction and invokeMethod of the engine.
+     */
+    @Test
+    public void invocable() throws Exception {
+        System.out.println("invocable");
+        CajuScriptEngine engine = new CajuScriptEngine();
+        engine.eval("sum a, b # ~ a + b; #; none # x = 1; #;");
+        int vars = engine.getCajuScript().getContext().getAllKeys(true).size();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 2, engine.invokeFunction("sum", i, 2));
+        }
+        assertNull(engine.invokeFunction("none"));
+        assertEquals("caju", engine.invokeMethod(new StringBuilder("caj"), "append", "u").toString());
+        assertEquals(3, engine.invokeMethod("abc", "length"));
+        assertEquals(vars, engine.getCajuScript().getContext().getAllKeys(true).size());
+        try {
+            engine.invokeFunction("missing");
+            fail("Function missing was invoked.");
+        } catch (NoSuchMethodException e) {
+        }
+        Runnable runnable = engine.getInterface(Runnable.class);
+        engine.eval("run # .count += 1; #;");
+        engine.put("count", 0);
+        runnable.run();
+        assertEquals(1, engine.get("count"));
+    }
+
+    /**
+     * Test of the bindings used directly by the engine.
+     */
+    @Test
+    public void bindings() throws Exception {
+        System.out.println("bindings");
+        CajuScriptEngine engine = new CajuScriptEngine();
+        final Set<String> read = new java.util.HashSet<String>();
+        javax.script.Bindings bindings = new javax.script.SimpleBindings() {
+            @Override
+            public Object get(Object key) {
+                read.add((String) key);
+                return super.get(key);
+            }
+        };
+        for (int i = 0; i < 300; i++) {
+            bindings.put("v" + i, i);
+        }
+        bindings.put("total", 0);
+        engine.eval("total = v1 + v2; v3 = \"x\";", bindings);
+        assertEquals(3, bindings.get("total"));
+        assertEquals("x", bindings.get("v3"));
+        assertFalse(read.contains("v4"));
+        assertEquals(4, bindings.get("v4"));
+        assertFalse(engine.getCajuScript().getContext().getAllKeys().contains("v1"));
+        bindings.put("v1", 10);
+        engine.eval("total = v1 + v2;", bindings);
+        assertEquals(12, bindings.get("total"));
+        engine.getContext().setBindings(engine.createBindings(), javax.script.ScriptContext.GLOBAL_SCOPE);
+        engine.getContext().setAttribute("g", 1, javax.script.ScriptContext.GLOBAL_SCOPE);
+        engine.getContext().setAttribute("g", 2, javax.script.ScriptContext.ENGINE_SCOPE);
+        engine.eval("g = g + 1;");
+        assertEquals(3, engine.getContext().getAttribute("g", javax.script.ScriptContext.ENGINE_SCOPE));
+        assertEquals(1, engine.getContext().getAttribute("g", javax.script.ScriptContext.GLOBAL_SCOPE));
+    }
+
+    /**
+     * Interface with primitive types to be implemented by script.
+     */
+    public interface Primitives {
+        public long sum(int i, long l, double d);
+        public boolean not(boolean b);
+        public char first(String s);
+        public void touch(byte b);
+    }
+
+    /**
+     * Test of interfaces implemented by generated classes.
+     */
+    @Test
+    public void interfaceImplementation() throws Exception {
+        System.out.println("interfaceImplementation");
+        CajuScriptEngine engine = new CajuScriptEngine();
+        engine.eval("compare a, b # ~ b - a; #; sum i, l, d # ~ i + l + d; #; not b # b = false ? ~ true; ? ~ false; #; first s # ~ s.charAt(0); #; touch b # .touched = b; #;");
+        java.util.Comparator<Integer> comparator = engine.getInterface(java.util.Comparator.class);
+        assertFalse(java.lang.reflect.Proxy.isProxyClass(comparator.getClass()));
+        java.util.List<Integer> list = new java.util.ArrayList<Integer>(java.util.Arrays.asList(3, 1, 2));
+        java.util.Collections.sort(list, comparator);
+        assertEquals(java.util.Arrays.asList(3, 2, 1), list);
+        Primitives primitives = engine.getInterface(Primitives.class);
+        assertEquals(6L, primitives.sum(1, 2L, 3d));
+        assertTrue(primitives.not(false));
+        assertFalse(primitives.not(true));
+        assertEquals('c', primitives.first("caju"));
+        primitives.touch((byte) 7);
+        assertEquals(7, engine.getCajuScript().get("touched"));
+        assertSame(primitives.getClass(), engine.getInterface(Primitives.class).getClass());
+        CharSequence chars = engine.getInterface("caju", CharSequence.class);
+        assertEquals(4, chars.length());
+    }
+
+    /**
+     * Test of the temporary values of the expressions kept in registers.
+     */
+    @Test
+    public void registers() throws Exception {
+        System.out.println("registers");
+        CajuScript caju = new CajuScript();
+        caju.eval("f x # ~ x * 2; #; a = 1; b = 2; c = 3; r = f(a + (b * c)); s = (a + b) * (c - a); x = 0; x < 3 @ x = x + 1; t = f((x + 1) * 2); @");
+        assertEquals(14, caju.get("r"));
+        assertEquals(6, caju.get("s"));
+        assertEquals(16, caju.get("t"));
+        for (String key : caju.getContext().getAllKeys(true)) {
+            assertFalse(key, key.startsWith(CajuScript.CAJU_VARS_GROUP));
+            assertFalse(key, key.startsWith(CajuScript.CAJU_VARS_MATH));
+            assertFalse(key, key.startsWith(CajuScript.CAJU_VARS.concat("_contexts_")));
+        }
+    }
+
+    /**
+     * Test of short circuit of the logical operators.
+     */
+    @Test
+    public void shortCircuit() throws Exception {
+        System.out.println("shortCircuit");
+        CajuScript caju = new CajuScript();
+        caju.eval("calls = 0; hit v # .calls = .calls + 1; ~ v; #; x = 0;"
+                + "\nx > 0 & hit(true) ? a = 1; ?? a = 2; ?"
+                + "\nx = 0 | hit(false) ? b = 1; ?? b = 2; ?"
+                + "\nx = 0 & (hit(x + 1) = 1) ? c = 1; ?? c = 2; ?"
+                + "\nx > 0 | hit(true) & x < 1 ? d = 1; ?? d = 2; ?"
+                + "\ny = 0; y < 3 & hit(true) @ y = y + 1; @");
+        assertEquals(2, caju.get("a"));
+        assertEquals(1, caju.get("b"));
+        assertEquals(1, caju.get("c"));
+        assertEquals(1, caju.get("d"));
+        assertEquals(3, caju.get("y"));
+        assertEquals(5, caju.get("calls"));
+    }
+
+    /**
+     * Test of literals classified in the parse.
+     */
+    @Test
+    public void literals() throws Exception {
+        System.out.println("literals");
+        assertTrue(Value.isNumber("10"));
+        assertTrue(Value.isNumber("-1.5e3"));
+        assertTrue(Value.isNumber(".5"));
+        assertTrue(Value.isNumber("2f"));
+        assertFalse(Value.isNumber("1e"));
+        assertFalse(Value.isNumber("abc"));
+        assertFalse(Value.isNumber("."));
+        CajuScript caju = new CajuScript();
+        caju.eval("f x # a = 3000000000; b = 1.5; c = true; d = 'a\\tb\\u0041\\'c'; e = $; ~ x + 1; #; r = 0; i = 0; i < 3 @ r = f(r); i = i + 1; @");
+        assertEquals(3, caju.get("r"));
+        caju.eval("a = 3000000000; b = 1.5; c = TRUE; d = 'a\\tb\\u0041\\'c'; e = $; n = -2;");
+        assertEquals(3000000000L, caju.get("a"));
+        assertEquals(1.5f, caju.get("b"));
+        assertEquals(true, caju.get("c"));
+        assertEquals("a\tbA'c", caju.get("d"));
+        assertNull(caju.get("e"));
+        assertEquals(-2, caju.get("n"));
+    }
+
+    /**
+     * Test of the constants of the string literals.
+     */
+    @Test
+    public void constants() throws Exception {
+        System.out.println("constants");
+        String script = "caju.cache: constants;\nf s # ~ s.concat('!'); #; a = 'x'; b = f('y'); c = 'x'.concat(a);";
+        for (int i = 0; i < 2; i++) {
+            CajuScript caju = new CajuScript();
+            caju.eval(script);
+            assertSame("x", caju.get("a"));
+            assertEquals("y!", caju.get("b"));
+            assertEquals("xx", caju.get("c"));
+            assertTrue(caju.getContext().getStaticStrings().isEmpty());
+        }
+    }
+
+    /**
+     * Test of the global syntaxes shared by the instances.
+     */
+    @Test
+    public void syntaxImmutable() throws Exception {
+        System.out.println("syntaxImmutable");
+        Syntax syntax = CajuScript.getGlobalSyntax("Caju");
+        assertTrue(syntax.isImmutable());
+        try {
+            syntax.setIf(java.util.regex.Pattern.compile("^if\\s*(.*)"));
+            fail("Global syntax was changed.");
+        } catch (UnsupportedOperationException e) {
+        }
+        assertSame(syntax, new CajuScript().getSyntax());
+        assertSame(new CajuScript().getSyntax(), new CajuScript().getSyntax());
+        Syntax custom = new Syntax();
+        assertFalse(custom.isImmutable());
+        custom.setIf(java.util.regex.Pattern.compile("^if\\s*(.*)"));
+        CajuScript caju = new CajuScript();
+        caju.eval("x = 1 + 2;");
+        assertEquals(3, caju.get("x"));
+    }
+
+    /**
+     * Test of the break and continue with and without labels.
+     */
+    @Test
+    public void loopLabels() throws Exception {
+        System.out.println("loopLabels");
+        CajuScript caju = new CajuScript();
+        caju.eval("r = 0;\ni = 0;\nouter: i < 5 @\ni = i + 1;\nj = 0;\ninner: j < 5 @\nj = j + 1;\nj = 2 ?\n.. outer;\n?\ni = 4 ?\n!! outer;\n?\nr = r + 1;\n@\n@");
+        assertEquals(3, caju.get("r"));
+        assertEquals(4, caju.get("i"));
+        caju.eval("a = 0;\nc = 0;\nouter: a < 3 @\na = a + 1;\nb = 0;\ninner: b < 10 @\nb = b + 1;\nb = 2 ?\n!!;\n?\n@\nc = c + 1;\n@");
+        assertEquals(3, caju.get("c"));
+        caju.eval("k = 0;\nn = 0;\nk < 10 @\nk = k + 1;\nk % 2 = 0 ?\n..;\n?\nn = n + 1;\n@");
+        assertEquals(5, caju.get("n"));
+    }
+
+    /**
+     * Test of the optimization of the literal operations, ifs and loops.
+     */
+    @Test
+    public void optimizer() throws Exception {
+        System.out.println("optimizer");
+        String script = "x = 2 * 60 * 60;\ny = (1 + 2) * x - 4;\nz = 'a' + 1;\nd = 7 / 2 + 0.5;\nl = 3000000000 + 1;\n"
+                + "1 = 1 ?\nw = 1;\n??\nw = 2;\n?\n2 > 3 ?\nv = 1;\n?\nfalse @\nv = 2;\n@\nc = 1 + 2 * 3 = 7 & x > 7000;";
+        Base base = new Base((LineDetail)null);
+        base.parse(new CajuScript(), script, CajuScript.getGlobalSyntax("Caju"));
+        assertEquals(8, base.getElements().size());
+        for (int i = 0; i < 2; i++) {
+            CajuScript caju = new CajuScript();
+            caju.eval((i == 0 ? "" : "caju.compile.classPath: dist/cajuscript.jar;caju.compile: test.TestOptimizer;") + script);
+            assertEquals(7200, caju.get("x"));
+            assertEquals(21596, caju.get("y"));
+            assertEquals("a1", caju.get("z"));
+            assertEquals(3.5f, caju.get("d"));
+            assertEquals(3000000001L, caju.get("l"));
+            assertEquals(1, caju.get("w"));
+            assertNull(caju.getVar("v"));
+            assertEquals(true, caju.get("c"));
+        }
+    }
+
+    /**
+     * Test of the invocations of the functions with the frames reused.
+     */
+    @Test
+    public void functionCalls() throws Exception {
+        System.out.println("functionCalls");
+        CajuScript caju = new CajuScript();
+        caju.eval("calls = 0;\nnext # .calls = .calls + 1;\n~ .calls;\n#;\nsum a, b # ~ a + b;\n#;\nr = sum(next(), 10);");
+        assertEquals(1, caju.get("calls"));
+        assertEquals(11, caju.get("r"));
+        caju.eval("fib n # n < 2 ?\n~ n;\n?\n~ fib(n - 1) + fib(n - 2);\n#;\nf = fib(15);");
+        assertEquals(610, caju.get("f"));
+        caju.eval("keep x # .kept = x + 1;\n#;\nkeep(1);");
+        Value kept = caju.getVar("kept");
+        caju.eval("keep(5);");
+        assertEquals(2, kept.getValue());
+        assertEquals(6, caju.get("kept"));
+        CajuScript other = new CajuScript();
+        other.eval("fib n # n < 2 ?\n~ n;\n?\n~ fib(n - 1) + fib(n - 2);\n#;\nf = fib(10);");
+        assertEquals(55, other.get("f"));
+    }
+
+    /**
+     * Test of the invocations of the functions of the scripts compiled.
+     */
+    @Test
+    public void compiledFunctions() throws Exception {
+        System.out.println("compiledFunctions");
+        String script = "caju.compile.classPath: dist/cajuscript.jar;caju.compile: test.TestCompiledFunctions;\n"
+                + "twice x # ~ x * 2;\n#;\nfib n # n < 2 ?\n~ n;\n?\n~ fib(n - 1) + fib(n - 2);\n#;\nr = fib(twice(5));";
+        CajuScript caju = new CajuScript();
+        caju.eval(script);
+        assertEquals(55, caju.get("r"));
+        caju = new CajuScript();
+        caju.eval(script);
+        assertEquals(55, caju.get("r"));
+        int twice = caju.getFunc("twice").getIndex();
+        int fib = caju.getFunc("fib").getIndex();
+        assertTrue(twice > -1 && fib > -1 && twice != fib);
+    }
+
+    @Test
+    public void compileInMemory() throws Exception {
+        System.out.println("compileInMemory");
+        String script = "caju.compile.memory: true;caju.compile: test.TestCompileInMemory;\n"
+                + "sum x # ~ x + 1;\n#;\nr = sum(a);";
+        CajuScript caju = new CajuScript();
+        caju.set("a", 1);
+        caju.eval(script);
+        assertEquals(2, caju.get("r"));
+        assertTrue(caju.isCompileInMemory());
+        caju = new CajuScript();
+        caju.set("a", 2);
+        caju.eval(script);
+        assertEquals(3, caju.get("r"));
+        assertTrue(caju.getFunc("sum").getIndex() > -1);
+        assertFalse(new File(caju.getCompileBaseDirectory(), "test/TestCompileInMemory.class").exists());
+        org.cajuscript.compiler.Compiler.unload("test.TestCompileInMemory");
+        caju = new CajuScript();
+        caju.set("a", 3);
+        caju.eval(script);
+        assertEquals(4, caju.get("r"));
+    }
+
+    @Test
+    public void compileManifest() throws Exception {
+        System.out.println("compileManifest");
+        String script = "caju.compile.classPath: dist/cajuscript.jar;caju.compile: test.TestCompileManifest;\n";
+        CajuScript caju = new CajuScript();
+        caju.eval(script + "r = 1;");
+        caju.eval(script + "r = 1;");
+        assertEquals(1, caju.get("r"));
+        File manifest = new File(caju.getCompileBaseDirectory(), "manifest.cjm");
+        assertTrue(manifest.exists());
+        assertFalse(new File(caju.getCompileBaseDirectory(), "test/TestCompileManifest.cj").exists());
+        java.io.FileOutputStream out = new java.io.FileOutputStream(manifest, true);
+        out.write(new byte[]{0, 64, 1});
+        out.close();
+        long length = manifest.length();
+        caju.eval(script + "r = 2;");
+        assertEquals(2, caju.get("r"));
+        assertEquals(length - 3, manifest.length());
+        caju = new CajuScript();
+        caju.eval(script + "r = 2;");
+        assertEquals(2, caju.get("r"));
+        File baseDir = java.nio.file.Files.createTempDirectory("cajuscript-manifest").toFile();
+        org.cajuscript.compiler.Compiler.loadManifest(baseDir.getPath());
+        script = "caju.compile.baseDirectory: " + baseDir.getPath() + ";caju.compile.classPath: dist/cajuscript.jar;caju.compile: test.TestCompileManifest";
+        caju.eval(script + "A;\nr = 3;");
+        manifest = new File(baseDir, "manifest.cjm");
+        int record = 2 + "test.TestCompileManifestA".length() + 4 + 32;
+        assertEquals(12 + record, manifest.length());
+        caju.eval(script + "B;\nr = 4;");
+        assertEquals(12 + record * 2, manifest.length());
+        caju.eval(script + "A;\nr = 5;");
+        assertEquals(5, caju.get("r"));
+        assertEquals(12 + record * 2, manifest.length());
+        caju.eval("caju.compile.baseDirectory: " + baseDir.getPath() + ";caju.compile.classPath: dist/cajuscript.jar;caju.compile: T;\nr = 6;");
+        assertEquals(6, caju.get("r"));
+        assertTrue(new File(baseDir, "T.class").exists());
+        delete(baseDir);
+    }
+
+    private void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void contextVars() throws Exception {
+        System.out.println("contextVars");
+        CajuScript caju = new CajuScript();
+        java.util.Map<String, Value> vars = caju.getContext().getVars();
+        caju.eval("x = 1;");
+        assertEquals(1, vars.get("x").getValue());
+        assertTrue(vars.containsKey("x"));
+        vars.put("y", caju.toValue(2));
+        caju.eval("z = x + y;");
+        assertEquals(3, caju.get("z"));
+        vars.remove("x");
+        assertNull(caju.getVar("x"));
+        assertFalse(caju.getAllKeys().contains("x"));
+        assertTrue(vars.keySet().contains("z"));
+    }
+
+    @Test
+    public void inlineCacheSafety() throws Exception {
+        System.out.println("inlineCacheSafety");
+        final CajuScript caju = new CajuScript();
+        org.cajuscript.cmd.InlineCache cache = new org.cajuscript.cmd.InlineCache();
+        Object[] values = new Object[] {"x"};
+        java.lang.invoke.MethodHandle handle = cache.add(caju, null, values, Integer.class.getMethod("toHexString", int.class));
+        assertSame(org.cajuscript.cmd.InlineCache.FALLBACK, org.cajuscript.cmd.InlineCache.invoke(handle, null, values));
+        handle = cache.add(caju, null, values, Integer.class.getMethod("parseInt", String.class));
+        try {
+            org.cajuscript.cmd.InlineCache.invoke(handle, null, values);
+            fail("Exception of the method expected.");
+        } catch (java.lang.reflect.InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+        final org.cajuscript.cmd.InlineCache shared = new org.cajuscript.cmd.InlineCache();
+        final java.lang.reflect.Method toString = Object.class.getMethod("toString");
+        final Object[] receivers = new Object[] {"a", 1, 2L, 3d, 4f, new StringBuilder("b"), new java.util.ArrayList<Object>()};
+        final java.util.List<Throwable> errors = java.util.Collections.synchronizedList(new java.util.ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; j++) {
+                            Object o = receivers[j % receivers.length];
+                            java.lang.invoke.MethodHandle h = shared.find(o, new Object[0]);
+                            if (h == null) {
+                                h = shared.add(caju, o, new Object[0], toString);
+                            }
+                            assertEquals(o.toString(), org.cajuscript.cmd.InlineCache.invoke(h, o, new Object[0]));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertTrue(shared.size() <= org.cajuscript.cmd.InlineCache.LIMIT);
+    }
+
+    /**
+     * Test of the short circuit in chains of logical operations with calls.
+     */
+    @Test
+    public void shortCircuitChain() throws Exception {
+        System.out.println("shortCircuitChain");
+        String[][] chains = new String[][] {
+            {"inc(false) | inc(true) | inc(false)", "true", "2"},
+            {"inc(true) & inc(false) & inc(true)", "false", "2"},
+            {"inc(true) & inc(true) & inc(false)", "false", "2"},
+            {"inc(false) | inc(false) | inc(true)", "true", "2"},
+            {"inc(false) & inc(true) & inc(true)", "false", "1"},
+            {"inc(1 > 2) | inc(2 > 3) | inc(3 > 2)", "true", "3"},
+            {"inc(1 < 2) & inc(2 < 3) & inc(3 < 2)", "false", "3"}
+        };
+        for (String[] chain : chains) {
+            CajuScript caju = new CajuScript();
+            caju.eval(".cnt = 0;\ninc x # .cnt = cnt + 1;\n~ x;\n#;\nr = " + chain[0] + ";");
+            assertEquals(chain[0], Boolean.valueOf(chain[1]), caju.get("r"));
+            assertEquals(chain[0], Integer.valueOf(chain[2]), caju.get("cnt"));
+        }
+    }
+
+    /**
+     * Test of the short circuit of the logical operations compiled.
+     */
+    @Test
+    public void compiledShortCircuit() throws Exception {
+        System.out.println("compiledShortCircuit");
+        String script = ".calls = 0;\nhit v # .calls = calls + 1;\n~ v;\n#;\nx = 0;\n"
+                + "x > 0 & hit(true) ?\na = 1;\n??\na = 2;\n?\n"
+                + "x = 0 | hit(false) ?\nb = 1;\n??\nb = 2;\n?\n"
+                + "c = x > 0 | hit(true) & x < 1;\n"
+                + "d = hit(false) | hit(true) | hit(false);\n"
+                + "y = 0;\ny < 3 & hit(true) @\ny = y + 1;\n@";
+        CajuScript interpreted = new CajuScript();
+        interpreted.eval(script);
+        script = "caju.compile.memory: true;caju.compile: test.TestCompiledShortCircuit;\n" + script;
+        new CajuScript().eval(script);
+        CajuScript compiled = new CajuScript();
+        compiled.eval(script);
+        assertTrue(compiled.getFunc("hit").getIndex() > -1);
+        org.cajuscript.compiler.Compiler.unload("test.TestCompiledShortCircuit");
+        for (String key : new String[] {"a", "b", "c", "d", "y", "calls"}) {
+            assertEquals(key, interpreted.get(key), compiled.get(key));
+        }
+        assertEquals(2, compiled.get("a"));
+        assertEquals(1, compiled.get("b"));
+        assertEquals(true, compiled.get("c"));
+        assertEquals(true, compiled.get("d"));
+        assertEquals(3, compiled.get("y"));
+        assertEquals(6, compiled.get("calls"));
+    }
+
+    /**
+     * Test of the variables of the compiled scripts loaded by the slots and
+     * the registers of the parse.
+     */
+    @Test
+    public void compiledSlots() throws Exception {
+        System.out.println("compiledSlots");
+        String script = "caju.compile.memory: true;caju.compile: test.TestCompiledSlots;\n"
+                + ".count = 0;\nsum n # t = 0;\ni = 0;\ni < n @\nt = t + i;\ni = i + 1;\n@\n.count = count + 1;\n~ t;\n#;\n"
+                + "a = 1;\nb = 2;\nx = x + 1;\ny = sum(x + 3) + (a + b) * 2;";
+        CajuScript caju = new CajuScript();
+        caju.set("x", 10);
+        caju.eval(script);
+        assertEquals(97, caju.get("y"));
+        caju = new CajuScript();
+        for (int i = 0; i < 3; i++) {
+            caju.set("x", 10 + i);
+            caju.eval(script);
+            assertEquals(11 + i, caju.get("x"));
+            assertEquals((14 + i) * (13 + i) / 2 + 6, caju.get("y"));
+            assertEquals(1, caju.get("count"));
+        }
+        assertTrue(caju.getFunc("sum").getIndex() > -1);
+        assertNotNull(caju.getFunc("sum").getScope());
+        assertEquals(91, caju.getFunc("sum").callValue(caju, caju.getSyntax(), new Value[] { caju.toValue(14, caju.getContext(), caju.getSyntax()) }).getValue());
+        org.cajuscript.compiler.Compiler.unload("test.TestCompiledSlots");
+    }
+
+    /**
+     * Test of the frames of a function called by many threads.
+     */
+    @Test
+    public void functionFrames() throws Exception {
+        System.out.println("functionFrames");
+        final CajuScript caju = new CajuScript();
+        caju.eval("sum x # y = x + 1;\n~ y;\n#;");
+        final org.cajuscript.parser.Function function = caju.getFunc("sum");
+        final java.util.List<Throwable> errors = java.util.Collections.synchronizedList(new java.util.ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final int base = i * 1000;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; j++) {
+                            Value v = new Value(caju, caju.getContext(), caju.getSyntax());
+                            v.setValue(base + j);
+                            assertEquals(base + j + 1, function.call(caju, caju.getSyntax(), new Value[] {v}));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    /**
+     * Test of the double values keeping the double precision.
+     */
+    @Test
+    public void doublePrecision() throws Exception {
+        System.out.println("doublePrecision");
+        CajuScript caju = new CajuScript();
+        caju.set("d", 0.1d);
+        assertEquals(0.1d, caju.get("d"));
+        caju.eval("x = d;");
+        assertEquals(0.1d, caju.get("x"));
+        Value v = new Value(caju, caju.getContext(), caju.getSyntax());
+        v.setValue(Double.valueOf(1.2345678901234d));
+        assertEquals(1.2345678901234d, v.getNumberDoubleValue(), 0d);
+        assertEquals("1.2345678901234", v.toString());
+    }
+
+    /**
+     * Test of the serialization of a literal value.
+     */
+    @Test
+    public void valueSerialization() throws Exception {
+        System.out.println("valueSerialization");
+        CajuScript caju = new CajuScript();
+        Value v = new Value(caju, caju.getContext(), caju.getSyntax());
+        v.setScript("30");
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+        out.writeObject(v);
+        out.close();
+        Value read = (Value) new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(v.getValue(), read.getValue());
+        assertEquals(v.toString(), read.toString());
+    }
+
+    /**
+     * Test of the frames of a function not keeping the CajuScript instance
+     * after the invocation.
+     */
+    @Test
+    public void functionFramesRelease() throws Exception {
+        System.out.println("functionFramesRelease");
+        CajuScript caju = new CajuScript();
+        caju.eval("sum x # y = x + 1;\n~ y;\n#;");
+        org.cajuscript.parser.Function function = caju.getFunc("sum");
+        java.lang.ref.WeakReference<CajuScript> released = new java.lang.ref.WeakReference<CajuScript>(callSum(function));
+        for (int i = 0; i < 50 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(released.get());
+        assertEquals(3, function.call(caju, caju.getSyntax(), new Value[] {value(caju, 2)}));
+    }
+
+    private CajuScript callSum(org.cajuscript.parser.Function function) throws Exception {
+        CajuScript caju = new CajuScript();
+        assertEquals(2, function.call(caju, caju.getSyntax(), new Value[] {value(caju, 1)}));
+        return caju;
+    }
+
+    private Value value(CajuScript caju, Object o) throws Exception {
+        Value v = new Value(caju, caju.getContext(), caju.getSyntax());
+        v.setValue(o);
+        return v;
+    }
+
+    /**
+     * Test of invokeFunction and invokeMethod of the engine used by many
+     * threads, with methods of the same name in other classes and arities.
+     */
+    @Test
+    public void invocableThreads() throws Exception {
+        System.out.println("invocableThreads");
+        final CajuScriptEngine engine = new CajuScriptEngine();
+        engine.eval("sum a, b # c = a + b;\n~ c;\n#;");
+        final java.util.List<Throwable> errors = java.util.Collections.synchronizedList(new java.util.ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final int base = i * 1000;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 500; j++) {
+                            assertEquals(base + j + 2, engine.invokeFunction("sum", base + j, 2));
+                            assertEquals(1, engine.invokeMethod("abc", "indexOf", "b"));
+                            assertEquals(-1, engine.invokeMethod("abc", "indexOf", "b", 2));
+                            assertEquals(2, engine.invokeMethod(new StringBuilder("abc"), "indexOf", "c"));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    /**
+     * Test of interfaces implemented by generated classes bound to the
+     * functions of each script and invoked by many threads.
+     */
+    @Test
+    public void interfaceImplementationBound() throws Exception {
+        System.out.println("interfaceImplementationBound");
+        CajuScriptEngine ascending = new CajuScriptEngine();
+        ascending.eval("compare a, b # c = a - b;\n~ c;\n#;");
+        CajuScriptEngine descending = new CajuScriptEngine();
+        descending.eval("compare a, b # c = b - a;\n~ c;\n#;");
+        @SuppressWarnings("unchecked")
+        final java.util.Comparator<Integer> up = ascending.getInterface(java.util.Comparator.class);
+        @SuppressWarnings("unchecked")
+        final java.util.Comparator<Integer> down = descending.getInterface(java.util.Comparator.class);
+        assertSame(up.getClass(), down.getClass());
+        final java.util.List<Throwable> errors = java.util.Collections.synchronizedList(new java.util.ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 500; j++) {
+                            assertEquals(-j, up.compare(0, j));
+                            assertEquals(j, down.compare(0, j));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+}